@@ -0,0 +1,69 @@
+/* Benchmarks of merging one table file into another: merging the loaded tables with merge(Table) and printing
+ * the result out to file, against streaming the other file into the target with mergeFile(String).
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeBenchmark {
+
+    /* FIELDS */
+
+    @Param({"1000", "100000"})
+    private int rows; // number of rows of each table
+
+    @Param({"4", "16"})
+    private int columns; // number of columns on each row
+
+    private ArrayList<String> elements; // elements of the target table
+    private String path; // target table file, written again before every merge
+    private String otherPath; // table file that is merged into the target, it isn't changed
+
+    /* METHODS - setup */
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        this.elements = TableData.numbers(this.rows, this.columns, 8);
+        this.path = TableData.temporaryFile("target");
+        this.otherPath = TableData.temporaryFile("other");
+        TableData.writeTable(this.otherPath, TableData.numbers(this.rows, this.columns, 6), this.columns);
+    }
+
+    @Setup(Level.Invocation)
+    public void writeTarget() throws Exception {
+
+        TableData.writeTable(this.path, this.elements, this.columns);
+    }
+
+    /* METHODS - benchmarks */
+
+    @Benchmark
+    public int mergeLoaded() throws Exception {
+
+        VariableLengthTable table = new VariableLengthTable(this.path, this.columns);
+        table.merge(new VariableLengthTable(this.otherPath, this.columns)); // both tables are read
+        table.compact();
+        return table.size();
+    }
+
+    @Benchmark
+    public int mergeFile() throws Exception {
+
+        return new VariableLengthTable(this.path, this.columns).mergeFile(this.otherPath);
+    }
+
+    @Benchmark
+    public int mergeStatisticalFile() throws Exception {
+
+        return new StatisticalTable(this.path, this.columns).mergeFile(this.otherPath);
+    }
+}
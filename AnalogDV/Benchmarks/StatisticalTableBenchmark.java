@@ -0,0 +1,101 @@
+/* Benchmarks of the statistics of StatisticalTable, each on a table that has already been read, and of
+ * StatisticalSummary.read, which calculates them while reading the file.
+ */
+
+package analogdv;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticalTableBenchmark {
+
+    /* FIELDS */
+
+    @Param({"1000", "100000"})
+    private int rows; // number of rows of the table
+
+    @Param({"2", "8"})
+    private int columns; // number of columns on each row
+
+    @Param({"6", "12"})
+    private int cellWidth; // number of characters the largest numbers have
+
+    private String path; // table file
+    private StatisticalTable table; // table of path, already read
+    private StatisticalTable indexedTable; // table of path, with an index of its first column
+
+    /* METHODS - setup */
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        this.path = TableData.temporaryFile("statistics");
+        TableData.writeTable(this.path, TableData.numbers(this.rows, this.columns, this.cellWidth), this.columns);
+        this.table = new StatisticalTable(this.path, this.columns);
+        this.table.getMeanValue();
+        this.indexedTable = new StatisticalTable(this.path, this.columns);
+        this.indexedTable.useColumnIndex(1);
+        this.indexedTable.countWhere(1, 0, 0); // builds the index
+    }
+
+    /* METHODS - benchmarks */
+
+    @Benchmark
+    public double getMeanValue() throws Exception {
+
+        return this.table.getMeanValue();
+    }
+
+    @Benchmark
+    public double getMedianValue() throws Exception {
+
+        return this.table.getMedianValue();
+    }
+
+    @Benchmark
+    public double getModeValue() throws Exception {
+
+        return this.table.getModeValue();
+    }
+
+    @Benchmark
+    public double getStandardDeviation() throws Exception {
+
+        return this.table.getStandardDeviation(0);
+    }
+
+    @Benchmark
+    public double[] linearRegression() throws Exception {
+
+        return this.table.linearRegression(1, 2);
+    }
+
+    @Benchmark
+    public double summarizeWhere() throws Exception {
+
+        return this.table.summarizeWhere(2, 1, 10, 20).getSum();
+    }
+
+    @Benchmark
+    public double summarizeWhereWithIndex() throws Exception {
+
+        return this.indexedTable.summarizeWhere(2, 1, 10, 20).getSum();
+    }
+
+    @Benchmark
+    public double openAndGetMeanValue() throws Exception {
+
+        return new StatisticalTable(this.path, this.columns).getMeanValue();
+    }
+
+    @Benchmark
+    public double readSummary() throws Exception {
+
+        return StatisticalSummary.read(this.path, this.columns).getMeanValue();
+    }
+}
@@ -0,0 +1,80 @@
+/* Benchmarks of the in-memory part of a table: adding elements at growing sizes, and building the string
+ * representation, both all of it and only the rows that changed.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableBenchmark {
+
+    /* FIELDS */
+
+    @Param({"1000", "10000", "100000"})
+    private int rows; // number of rows of the table
+
+    @Param({"4", "16"})
+    private int columns; // number of columns on each row
+
+    @Param({"8", "32"})
+    private int cellWidth; // max number of characters in an element
+
+    private ArrayList<String> elements; // elements of the table
+    private Table table; // table with all elements, for building its string representation
+
+    /* METHODS - setup */
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        this.elements = TableData.text(this.rows, this.columns, this.cellWidth);
+        this.table = new TableData.MemoryTable(this.columns);
+        this.table.add(this.elements);
+        this.table.getTable();
+    }
+
+    /* METHODS - benchmarks */
+
+    @Benchmark
+    public Table addOneByOne() throws Exception {
+
+        Table table = new TableData.MemoryTable(this.columns);
+        for (String element : this.elements) {
+
+            table.add(element);
+        }
+
+        return table;
+    }
+
+    @Benchmark
+    public Table addAll() throws Exception {
+
+        Table table = new TableData.MemoryTable(this.columns);
+        table.add(this.elements);
+
+        return table;
+    }
+
+    @Benchmark
+    public String getTable() throws Exception {
+
+        this.table.setColumns(this.columns); // every row has to be built again
+        return this.table.getTable();
+    }
+
+    @Benchmark
+    public String getTableAfterChange() throws Exception {
+
+        this.table.add(this.elements.get(0)); // only the last row has to be built again
+        this.table.remove(this.table.size() - 1);
+        return this.table.getTable();
+    }
+}
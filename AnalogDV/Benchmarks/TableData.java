@@ -0,0 +1,128 @@
+/* This class makes up tables for the benchmarks. Elements are generated from a fixed seed, so the same
+ * number of rows, columns and cell width always give the same table, and results of different runs can be
+ * compared.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Random;
+import java.io.*;
+
+class TableData {
+
+    /* FIELDS */
+
+    private static final long SEED = 20220618L; // same elements on every run
+    private static final String CHARACTERS = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    /* a table that is only kept in memory */
+    static class MemoryTable extends Table {
+
+        /**
+         * Constructor
+         *
+         * @param columns max number of columns in a row
+         * @throws Exception if columns < 1
+         */
+        MemoryTable(int columns) throws Exception {
+
+            super(columns);
+        }
+    }
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor, not used since all methods are static
+     */
+    private TableData() {
+
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Makes elements of random text, between 1 and cellWidth characters long
+     *
+     * @param rows number of rows
+     * @param columns number of columns on each row
+     * @param cellWidth max number of characters in an element
+     * @return rows * columns elements
+     */
+    static ArrayList<String> text(int rows, int columns, int cellWidth) {
+
+        Random random = new Random(SEED);
+        ArrayList<String> elements = new ArrayList<String>(rows * columns);
+        StringBuilder element = new StringBuilder(cellWidth);
+
+        for (int i = 0; i < rows * columns; i++) {
+
+            int length = 1 + random.nextInt(cellWidth);
+            for (int j = 0; j < length; j++) {
+
+                element.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+            }
+            elements.add(element.toString());
+            element.setLength(0);
+        }
+
+        return elements;
+    }
+
+    /**
+     * Makes elements of random numbers with two decimals, about cellWidth characters long
+     *
+     * @param rows number of rows
+     * @param columns number of columns on each row
+     * @param cellWidth number of characters the largest numbers have
+     * @return rows * columns elements
+     */
+    static ArrayList<String> numbers(int rows, int columns, int cellWidth) {
+
+        Random random = new Random(SEED);
+        ArrayList<String> elements = new ArrayList<String>(rows * columns);
+        int bound = (int) Math.pow(10, Math.max(1, Math.min(cellWidth - 1, 9))); // the "." takes one character
+
+        for (int i = 0; i < rows * columns; i++) {
+
+            elements.add(NumberCodec.format(random.nextInt(bound) / 100.0));
+        }
+
+        return elements;
+    }
+
+    /**
+     * Makes an empty file that is deleted when the benchmark ends
+     *
+     * @param name beginning of the file name
+     * @return path of the file
+     * @throws IOException if the file can't be created
+     */
+    static String temporaryFile(String name) throws IOException {
+
+        File file = File.createTempFile(name, ".table");
+        file.deleteOnExit();
+        new File(file.getPath() + ".journal").deleteOnExit();
+        new File(file.getPath() + ".tmp").deleteOnExit();
+        new File(file.getPath() + ".summary").deleteOnExit();
+        new File(file.getPath() + ".summary.tmp").deleteOnExit();
+
+        return file.getPath();
+    }
+
+    /**
+     * Writes a table file with the given elements, replacing the file if there is one
+     *
+     * @param path where the file is
+     * @param elements elements of the table
+     * @param columns number of columns on each row
+     * @throws IOException if something happens while writing to file
+     * @throws Exception if columns < 1
+     */
+    static void writeTable(String path, ArrayList<String> elements, int columns) throws IOException, Exception {
+
+        new File(path).delete();
+        new File(path + ".journal").delete();
+        new VariableLengthTable(path, elements, columns); // prints the table out to file
+    }
+}
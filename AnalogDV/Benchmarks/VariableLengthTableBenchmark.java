@@ -0,0 +1,81 @@
+/* Benchmarks of file-backed tables: opening a large table file, reading all of its elements, and what one
+ * change costs once it is written to the journal (and now and then to the table file).
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableLengthTableBenchmark {
+
+    /* FIELDS */
+
+    @Param({"1000", "100000"})
+    private int rows; // number of rows of the table
+
+    @Param({"4", "16"})
+    private int columns; // number of columns on each row
+
+    @Param({"8", "32"})
+    private int cellWidth; // max number of characters in an element
+
+    private ArrayList<String> elements; // elements of the table
+    private String path; // table file that is only read
+    private String changedPath; // table file that is changed by the benchmarks
+    private VariableLengthTable changedTable; // table of changedPath
+
+    /* METHODS - setup */
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+
+        this.elements = TableData.text(this.rows, this.columns, this.cellWidth);
+        this.path = TableData.temporaryFile("read");
+        this.changedPath = TableData.temporaryFile("changed");
+        TableData.writeTable(this.path, this.elements, this.columns);
+    }
+
+    @Setup(Level.Iteration)
+    public void openChangedTable() throws Exception {
+
+        TableData.writeTable(this.changedPath, this.elements, this.columns);
+        this.changedTable = new VariableLengthTable(this.changedPath, this.columns);
+        this.changedTable.size();
+    }
+
+    /* METHODS - benchmarks */
+
+    @Benchmark
+    public int open() throws Exception {
+
+        return new VariableLengthTable(this.path, this.columns).size(); // counts the elements without reading them
+    }
+
+    @Benchmark
+    public int openAndExtract() throws Exception {
+
+        return new VariableLengthTable(this.path, this.columns).getNumberOfRows(); // reads every element
+    }
+
+    @Benchmark
+    public int addAndRemove() throws Exception {
+
+        this.changedTable.add(this.elements.get(0));
+        this.changedTable.remove(0);
+        return this.changedTable.size();
+    }
+
+    @Benchmark
+    public void compact() throws Exception {
+
+        this.changedTable.add(this.elements.get(0));
+        this.changedTable.compact(); // prints the whole table out to file
+    }
+}
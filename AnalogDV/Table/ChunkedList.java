@@ -0,0 +1,384 @@
+/* This class is the list that holds the elements of a table. Elements are kept in chunks of limited size
+ * instead of one big array, so inserting or removing in the middle of a large table only shifts the elements
+ * of one chunk (and the chunk references) rather than every element after the position.
+ * Lookups remember the last chunk they landed in, which makes walking through the list in order as cheap as
+ * with an ArrayList. The remembered chunk and its start are one immutable object that is replaced whole, so
+ * threads that only read the list can share it, like they can share an ArrayList.
+ */
+
+package analogdv;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+class ChunkedList<E> extends AbstractList<E> {
+
+    /* FIELDS */
+
+    private static final int CHUNK_SIZE = 1024; // chunks are split when they grow past twice this size
+
+    private ArrayList<ArrayList<E>> chunks; // the elements, in order
+    private int size; // total number of elements
+    private Cursor lastLookup; // chunk the last lookup landed in
+
+    /* INNER CLASS */
+
+    private static class Cursor { // a chunk and the index of its first element, never changed once made
+
+        private final int chunk;
+        private final int start;
+
+        private Cursor(int chunk, int start) {
+
+            this.chunk = chunk;
+            this.start = start;
+        }
+    }
+
+    /* METHODS - constructors */
+
+    /**
+     * First constructor, empty list
+     */
+    ChunkedList() {
+
+        this.chunks = new ArrayList<ArrayList<E>>();
+        this.size = 0;
+        this.lastLookup = new Cursor(0, 0);
+    }
+
+    /**
+     * Second constructor
+     *
+     * @param elements ready-made collection of elements
+     */
+    ChunkedList(Collection<? extends E> elements) {
+
+        this();
+        for (E element : elements) {
+
+            this.add(element);
+        }
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Finds the chunk that holds an element, starting from the chunk of the last lookup. The walk is done on
+     * local copies, and the lookup is only remembered if it landed in another chunk
+     *
+     * @param index position of the element in the list
+     * @return the chunk and the index of its first element
+     */
+    private Cursor findChunk(int index) {
+
+        Cursor last = this.lastLookup; // read once, other reading threads may replace it meanwhile
+        int chunk = last.chunk;
+        int start = last.start;
+        if (chunk >= this.chunks.size()) {
+
+            chunk = 0;
+            start = 0;
+        }
+
+        while (index < start) {
+
+            chunk--;
+            start -= this.chunks.get(chunk).size();
+        }
+
+        while (index >= start + this.chunks.get(chunk).size()) {
+
+            start += this.chunks.get(chunk).size();
+            chunk++;
+        }
+
+        if (chunk != last.chunk || start != last.start) {
+
+            last = new Cursor(chunk, start);
+            this.lastLookup = last;
+        }
+
+        return last;
+    }
+
+    /**
+     * Tests if an index points to an element of the list
+     *
+     * @param index position in the list
+     * @param limit size of the list, or size + 1 if the index is allowed to point just past the last element
+     */
+    private void testIndex(int index, int limit) {
+
+        if (index < 0 || index >= limit) {
+
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.size);
+        }
+    }
+
+    /**
+     * Merges a chunk that has become empty, or small, with its neighbour so the number of chunks stays low.
+     * The start of the chunk doesn't move, so the remembered lookup position stays valid
+     *
+     * @param chunkNumber number of the chunk that lost elements
+     */
+    private void rebalance(int chunkNumber) {
+
+        ArrayList<E> chunk = this.chunks.get(chunkNumber);
+        if (chunk.isEmpty()) {
+
+            this.chunks.remove(chunkNumber);
+        }
+        else if (chunkNumber + 1 < this.chunks.size() && chunk.size() + this.chunks.get(chunkNumber + 1).size() <= CHUNK_SIZE) {
+
+            chunk.addAll(this.chunks.remove(chunkNumber + 1));
+        }
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Fetches an element
+     *
+     * @param index position of the element
+     * @return the element
+     */
+    public E get(int index) {
+
+        this.testIndex(index, this.size);
+        Cursor cursor = this.findChunk(index);
+        return this.chunks.get(cursor.chunk).get(index - cursor.start);
+    }
+
+    /**
+     * Replaces an element
+     *
+     * @param index position of the element
+     * @param element new element
+     * @return the replaced element
+     */
+    public E set(int index, E element) {
+
+        this.testIndex(index, this.size);
+        Cursor cursor = this.findChunk(index);
+        return this.chunks.get(cursor.chunk).set(index - cursor.start, element);
+    }
+
+    /**
+     * Inserts an element, only the elements of one chunk are shifted
+     *
+     * @param index position of the new element
+     * @param element new element
+     */
+    public void add(int index, E element) {
+
+        this.testIndex(index, this.size + 1);
+
+        if (this.chunks.isEmpty() || index == this.size) { // appending, most common case
+
+            ArrayList<E> last = this.chunks.isEmpty() ? null : this.chunks.get(this.chunks.size() - 1);
+            if (last == null || last.size() >= CHUNK_SIZE) {
+
+                last = new ArrayList<E>(CHUNK_SIZE);
+                this.chunks.add(last);
+            }
+            last.add(element);
+        }
+        else {
+
+            Cursor cursor = this.findChunk(index);
+            int chunkNumber = cursor.chunk;
+            ArrayList<E> chunk = this.chunks.get(chunkNumber);
+            chunk.add(index - cursor.start, element);
+
+            if (chunk.size() > 2 * CHUNK_SIZE) {
+
+                List<E> secondHalf = chunk.subList(CHUNK_SIZE, chunk.size());
+                this.chunks.add(chunkNumber + 1, new ArrayList<E>(secondHalf));
+                secondHalf.clear();
+            }
+        }
+
+        this.size++;
+        this.modCount++;
+    }
+
+    /**
+     * Removes an element, only the elements of one chunk are shifted
+     *
+     * @param index position of the element
+     * @return the removed element
+     */
+    public E remove(int index) {
+
+        this.testIndex(index, this.size);
+        Cursor cursor = this.findChunk(index);
+        E element = this.chunks.get(cursor.chunk).remove(index - cursor.start);
+        this.rebalance(cursor.chunk);
+        this.size--;
+        this.modCount++;
+
+        return element;
+    }
+
+    /**
+     * Removes all elements from one position up to, but not including, another. Chunks that lie entirely
+     * within the range are dropped without touching their elements
+     *
+     * @param fromIndex position of the first element to remove
+     * @param toIndex position after the last element to remove
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+
+        if (fromIndex < 0 || toIndex > this.size || fromIndex > toIndex) {
+
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds for length " + this.size);
+        }
+
+        int remaining = toIndex - fromIndex;
+        while (remaining > 0) {
+
+            Cursor cursor = this.findChunk(fromIndex);
+            int chunkNumber = cursor.chunk;
+            ArrayList<E> chunk = this.chunks.get(chunkNumber);
+            int start = fromIndex - cursor.start;
+            int end = Math.min(chunk.size(), start + remaining);
+
+            if (start == 0 && end == chunk.size()) {
+
+                this.chunks.remove(chunkNumber);
+            }
+            else {
+
+                chunk.subList(start, end).clear();
+            }
+
+            remaining -= end - start;
+            this.size -= end - start;
+        }
+
+        if (this.size > 0) {
+
+            this.rebalance(this.findChunk(Math.min(fromIndex, this.size - 1)).chunk);
+        }
+        this.modCount++;
+    }
+
+    /**
+     * Removes all elements
+     */
+    public void clear() {
+
+        this.chunks.clear();
+        this.size = 0;
+        this.lastLookup = new Cursor(0, 0);
+        this.modCount++;
+    }
+
+    /**
+     * Fetches number of elements
+     *
+     * @return number of elements
+     */
+    public int size() {
+
+        return this.size;
+    }
+
+    /**
+     * Walks through the list from the beginning
+     *
+     * @return iterator over all elements
+     */
+    public Iterator<E> iterator() {
+
+        return this.iterator(0);
+    }
+
+    /**
+     * Walks through the list from a given position, one chunk at a time. Like the iterators of ArrayList it
+     * fails with a ConcurrentModificationException if the list is changed other than through the iterator
+     *
+     * @param index position of the first element to visit
+     * @return iterator over the elements from index and onward
+     */
+    Iterator<E> iterator(int index) {
+
+        this.testIndex(index, this.size + 1);
+        Cursor first = this.size == index ? new Cursor(this.chunks.size(), index) : this.findChunk(index);
+        final int firstChunk = first.chunk;
+        final int firstPosition = index - first.start;
+
+        return new Iterator<E>() {
+
+            private int chunkNumber = firstChunk;
+            private int position = firstPosition;
+            private int expectedModCount = modCount; // the list as it was when the iterator was made
+
+            public boolean hasNext() {
+
+                return this.chunkNumber < chunks.size() && this.position < chunks.get(this.chunkNumber).size();
+            }
+
+            public E next() {
+
+                if (modCount != this.expectedModCount) {
+
+                    throw new ConcurrentModificationException();
+                }
+                else if (!this.hasNext()) {
+
+                    throw new NoSuchElementException();
+                }
+
+                ArrayList<E> chunk = chunks.get(this.chunkNumber);
+                E element = chunk.get(this.position);
+                this.position++;
+
+                if (this.position == chunk.size()) {
+
+                    this.chunkNumber++;
+                    this.position = 0;
+                }
+
+                return element;
+            }
+        };
+    }
+
+    /**
+     * Checks if another list holds the same elements in the same order
+     *
+     * @param other object to compare with
+     * @return true if both are lists with equal elements
+     */
+    public boolean equals(Object other) {
+
+        if (this == other) {
+
+            return true;
+        }
+        else if (!(other instanceof List) || ((List<?>) other).size() != this.size) {
+
+            return false;
+        }
+
+        Iterator<E> mine = this.iterator();
+        Iterator<?> theirs = ((List<?>) other).iterator();
+        while (mine.hasNext()) {
+
+            E element = mine.next();
+            Object otherElement = theirs.next();
+            if (element == null ? otherElement != null : !element.equals(otherElement)) {
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,103 @@
+/* This class keeps the rows of a table sorted by the value they have in one column, so that the rows whose
+ * value is within a range are found without going through the whole column. The cell of a row in the column
+ * is row * columns + column, the same stride StatisticalTable.getPoints uses. Rows that are added at the end
+ * are indexed right away. Removing cells moves every cell after them to another row or column, so the index
+ * is then marked as stale and built again the next time it is asked for something.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+
+class ColumnIndex {
+
+    /* FIELDS */
+
+    private int column; // the indexed column, counting from 0
+    private TreeMap<Double, ArrayList<Integer>> rows; // value -> rows with the value in the column, in increasing order
+    private boolean isStale; // true if cells have moved since the index was built
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor, the index is built the first time it is used
+     *
+     * @param column the indexed column, counting from 0
+     */
+    ColumnIndex(int column) {
+
+        this.column = column;
+        this.rows = new TreeMap<Double, ArrayList<Integer>>();
+        this.isStale = true;
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Turns a value into the key it is indexed by, -0.0 and 0.0 are equal and should be found together
+     *
+     * @param value the value
+     * @return the key
+     */
+    private static Double key(double value) {
+
+        return value + 0.0;
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Indexes a value that was added at the end of the table, does nothing if the index is stale or if the
+     * value isn't in the indexed column
+     *
+     * @param value the value
+     * @param cellNumber where in the table the value is
+     * @param columns max number of columns in a row
+     */
+    void add(double value, int cellNumber, int columns) {
+
+        if (!this.isStale && cellNumber % columns == this.column) {
+
+            this.rows.computeIfAbsent(key(value), k -> new ArrayList<Integer>(1)).add(cellNumber / columns);
+        }
+    }
+
+    /**
+     * Marks the index as stale, used when cells have been removed, or the number of columns has changed
+     */
+    void invalidate() {
+
+        this.isStale = true;
+        this.rows.clear();
+    }
+
+    /**
+     * Fetches the rows whose value in the column is within a range, the index is built first if it is stale
+     *
+     * @param values all values of the table, in cell order
+     * @param columns max number of columns in a row
+     * @param from smallest value of the range, inclusive
+     * @param to largest value of the range, inclusive
+     * @return rows of each value within the range, in increasing order of value
+     */
+    Collection<ArrayList<Integer>> rowsBetween(List<Double> values, int columns, double from, double to) {
+
+        if (this.isStale) {
+
+            for (int cellNumber = this.column, row = 0; cellNumber < values.size(); cellNumber += columns, row++) {
+
+                this.rows.computeIfAbsent(key(values.get(cellNumber)), k -> new ArrayList<Integer>(1)).add(row);
+            }
+            this.isStale = false;
+        }
+
+        if (!(from <= to)) { // empty range, or NaN as a bound
+
+            return new ArrayList<ArrayList<Integer>>();
+        }
+
+        return this.rows.subMap(key(from), true, key(to), true).values();
+    }
+}
@@ -0,0 +1,103 @@
+/* This class converts between the lines of delimited files (CSV, TSV) and table elements. A field can be put
+ * in double quotes, then it may contain the delimiter, and a double quote is written as two of them. Fields
+ * that span several lines are not supported, since a table cell can't hold a line break anyway.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.io.IOException;
+import java.io.Writer;
+
+class DelimitedCodec {
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor, not used since all methods are static
+     */
+    private DelimitedCodec() {
+
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Splits a line into its fields
+     *
+     * @param line line of a delimited file
+     * @param delimiter character between the fields, e.g. ',' or '\t'
+     * @param fields list the fields are added to, it is cleared first
+     * @return false if a quoted field isn't closed
+     */
+    static boolean split(String line, char delimiter, ArrayList<String> fields) {
+
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+
+        while (true) {
+
+            if (i < line.length() && line.charAt(i) == '"') { // quoted field
+
+                i++;
+                while (true) {
+
+                    if (i >= line.length()) {
+
+                        return false;
+                    }
+                    else if (line.charAt(i) == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+
+                        field.append('"');
+                        i += 2;
+                    }
+                    else if (line.charAt(i) == '"') {
+
+                        i++;
+                        break;
+                    }
+                    else {
+
+                        field.append(line.charAt(i));
+                        i++;
+                    }
+                }
+            }
+
+            while (i < line.length() && line.charAt(i) != delimiter) {
+
+                field.append(line.charAt(i));
+                i++;
+            }
+
+            fields.add(field.toString());
+            field.setLength(0);
+            if (i >= line.length()) {
+
+                return true;
+            }
+            i++; // skips the delimiter
+        }
+    }
+
+    /**
+     * Writes a field, in quotes if it contains the delimiter or a double quote
+     *
+     * @param writer where the field is written
+     * @param field the field
+     * @param delimiter character between the fields
+     * @throws IOException if something happens while writing
+     */
+    static void write(Writer writer, String field, char delimiter) throws IOException {
+
+        if (field.indexOf(delimiter) == -1 && field.indexOf('"') == -1) {
+
+            writer.write(field);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,253 @@
+/* This class is a list of strings that stores every element as an int code of a StringDictionary. A cell
+ * costs 4 bytes no matter how long the value is, and every distinct value exists only once in memory.
+ * Comparing elements with a list that uses the same dictionary is done on the codes.
+ */
+
+package analogdv;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+class DictionaryEncodedList extends AbstractList<String> implements RandomAccess {
+
+    /* FIELDS */
+
+    private StringDictionary dictionary; // translates between codes and strings
+    private int[] codes; // the elements, as codes
+    private int size; // number of elements
+
+    /* METHODS - constructors */
+
+    /**
+     * First constructor, empty list
+     *
+     * @param dictionary the dictionary, can be shared with other lists
+     */
+    DictionaryEncodedList(StringDictionary dictionary) {
+
+        this.dictionary = dictionary;
+        this.codes = new int[16];
+        this.size = 0;
+    }
+
+    /**
+     * Second constructor
+     *
+     * @param dictionary the dictionary, can be shared with other lists
+     * @param elements ready-made collection of elements
+     */
+    DictionaryEncodedList(StringDictionary dictionary, Collection<String> elements) {
+
+        this(dictionary);
+        this.ensureCapacity(elements.size());
+        for (String element : elements) {
+
+            this.codes[this.size] = dictionary.encode(element);
+            this.size++;
+        }
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Makes room for more codes
+     *
+     * @param capacity number of codes the list should be able to hold
+     */
+    private void ensureCapacity(int capacity) {
+
+        if (capacity > this.codes.length) {
+
+            this.codes = Arrays.copyOf(this.codes, Math.max(capacity, this.codes.length * 2));
+        }
+    }
+
+    /**
+     * Tests if an index points to an element of the list
+     *
+     * @param index position in the list
+     * @param limit size of the list, or size + 1 if the index is allowed to point just past the last element
+     */
+    private void testIndex(int index, int limit) {
+
+        if (index < 0 || index >= limit) {
+
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.size);
+        }
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Fetches an element
+     *
+     * @param index position of the element
+     * @return the element
+     */
+    public String get(int index) {
+
+        this.testIndex(index, this.size);
+        return this.dictionary.decode(this.codes[index]);
+    }
+
+    /**
+     * Replaces an element
+     *
+     * @param index position of the element
+     * @param element new element
+     * @return the replaced element
+     */
+    public String set(int index, String element) {
+
+        this.testIndex(index, this.size);
+        String old = this.dictionary.decode(this.codes[index]);
+        this.codes[index] = this.dictionary.encode(element);
+
+        return old;
+    }
+
+    /**
+     * Inserts an element
+     *
+     * @param index position of the new element
+     * @param element new element
+     */
+    public void add(int index, String element) {
+
+        this.testIndex(index, this.size + 1);
+        this.ensureCapacity(this.size + 1);
+        System.arraycopy(this.codes, index, this.codes, index + 1, this.size - index);
+        this.codes[index] = this.dictionary.encode(element);
+        this.size++;
+        this.modCount++;
+    }
+
+    /**
+     * Removes an element
+     *
+     * @param index position of the element
+     * @return the removed element
+     */
+    public String remove(int index) {
+
+        this.testIndex(index, this.size);
+        String element = this.dictionary.decode(this.codes[index]);
+        System.arraycopy(this.codes, index + 1, this.codes, index, this.size - index - 1);
+        this.size--;
+        this.modCount++;
+
+        return element;
+    }
+
+    /**
+     * Removes all elements from one position up to, but not including, another
+     *
+     * @param fromIndex position of the first element to remove
+     * @param toIndex position after the last element to remove
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+
+        if (fromIndex < 0 || toIndex > this.size || fromIndex > toIndex) {
+
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds for length " + this.size);
+        }
+
+        System.arraycopy(this.codes, toIndex, this.codes, fromIndex, this.size - toIndex);
+        this.size -= toIndex - fromIndex;
+        this.modCount++;
+    }
+
+    /**
+     * Removes all elements, the dictionary is left as it is
+     */
+    public void clear() {
+
+        this.size = 0;
+        this.modCount++;
+    }
+
+    /**
+     * Fetches number of elements
+     *
+     * @return number of elements
+     */
+    public int size() {
+
+        return this.size;
+    }
+
+    /**
+     * Finds the first position of a value, the value is translated once and then only codes are compared
+     *
+     * @param value value to look for
+     * @return position of the value, -1 if it isn't in the list
+     */
+    public int indexOf(Object value) {
+
+        int code = (value instanceof String) ? this.dictionary.lookup((String) value) : -1;
+        if (code == -1) {
+
+            return -1;
+        }
+
+        for (int i = 0; i < this.size; i++) {
+
+            if (this.codes[i] == code) {
+
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Checks if a value is in the list
+     *
+     * @param value value to look for
+     * @return true if it is in the list
+     */
+    public boolean contains(Object value) {
+
+        return this.indexOf(value) != -1;
+    }
+
+    /**
+     * Fetches the dictionary of the list
+     *
+     * @return the dictionary
+     */
+    StringDictionary getDictionary() {
+
+        return this.dictionary;
+    }
+
+    /**
+     * Checks if another list holds the same elements in the same order, lists with the same dictionary
+     * are compared code by code
+     *
+     * @param other object to compare with
+     * @return true if both are lists with equal elements
+     */
+    public boolean equals(Object other) {
+
+        if (other instanceof DictionaryEncodedList && ((DictionaryEncodedList) other).dictionary == this.dictionary) {
+
+            DictionaryEncodedList otherList = (DictionaryEncodedList) other;
+            return Arrays.equals(this.codes, 0, this.size, otherList.codes, 0, otherList.size);
+        }
+
+        return super.equals(other);
+    }
+
+    /**
+     * Calculates hash code the same way as every other list
+     *
+     * @return hash code
+     */
+    public int hashCode() {
+
+        return super.hashCode();
+    }
+}
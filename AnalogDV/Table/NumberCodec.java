@@ -0,0 +1,197 @@
+/* This class converts the cells of statistical tables between text and numbers. Parsing reads the characters
+ * of a cell where they are, without making a substring, and the common case (a plain decimal number with at
+ * most 15-16 significant digits and a small exponent) is calculated directly: a whole number that fits in a
+ * double, multiplied or divided by an exact power of ten, is correctly rounded with one operation (Clinger's
+ * fast path). Everything else, hexadecimal numbers, NaN, Infinity, long mantissas and large exponents, is
+ * left to Double.parseDouble, so that the result and the errors are always the same as before.
+ */
+
+package analogdv;
+
+class NumberCodec {
+
+    /* FIELDS */
+
+    private static final long MAX_EXACT_MANTISSA = 1L << 53; // larger whole numbers can't all be stored exactly in a double
+    private static final double[] POWERS_OF_TEN = { // every power of ten up to 10^22 can be stored exactly in a double
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final double MAX_PLAIN_VALUE = 1e7; // Double.toString uses scientific notation from here on
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor, not used since all methods are static
+     */
+    private NumberCodec() {
+
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Parses the text the slow way, used for everything the fast path doesn't handle
+     *
+     * @param text characters that contain the number
+     * @param start position of the first character of the number
+     * @param end position after the last character of the number
+     * @return the number
+     * @throws NumberFormatException if the text isn't a number
+     */
+    private static double parseSlowly(CharSequence text, int start, int end) {
+
+        return Double.parseDouble(text.subSequence(start, end).toString());
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Parses a number from part of a text, gives the same result as Double.parseDouble on that part
+     *
+     * @param text characters that contain the number
+     * @param start position of the first character of the number
+     * @param end position after the last character of the number
+     * @return the number
+     * @throws NumberFormatException if the text isn't a number
+     */
+    static double parse(CharSequence text, int start, int end) {
+
+        int i = start;
+        boolean isNegative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+
+            isNegative = text.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0; // significant digits, leading zeros don't count
+        int fractionDigits = 0;
+        boolean hasDigits = false;
+        boolean inFraction = false;
+        for (; i < end; i++) {
+
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+
+                hasDigits = true;
+                if (mantissa != 0 || c != '0') {
+
+                    digits++;
+                }
+                if (digits > 18) { // might not fit in a long
+
+                    return parseSlowly(text, start, end);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                fractionDigits += inFraction ? 1 : 0;
+            }
+            else if (c == '.' && !inFraction) {
+
+                inFraction = true;
+            }
+            else {
+
+                break;
+            }
+        }
+
+        int exponent = 0;
+        if (hasDigits && i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+
+            i++;
+            boolean isExponentNegative = false;
+            if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+
+                isExponentNegative = text.charAt(i) == '-';
+                i++;
+            }
+
+            int exponentStart = i;
+            for (; i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9'; i++) {
+
+                if (i - exponentStart > 3) { // far outside of the fast path
+
+                    return parseSlowly(text, start, end);
+                }
+                exponent = exponent * 10 + (text.charAt(i) - '0');
+            }
+            if (i == exponentStart) {
+
+                return parseSlowly(text, start, end);
+            }
+            exponent = isExponentNegative ? -exponent : exponent;
+        }
+
+        if (!hasDigits || i != end || mantissa > MAX_EXACT_MANTISSA) { // suffixes, whitespace, NaN, hex and so on
+
+            return parseSlowly(text, start, end);
+        }
+
+        exponent -= fractionDigits;
+        double value;
+        if (mantissa == 0) {
+
+            value = 0;
+        }
+        else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+
+            value = mantissa * POWERS_OF_TEN[exponent];
+        }
+        else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        }
+        else {
+
+            return parseSlowly(text, start, end);
+        }
+
+        return isNegative ? -value : value;
+    }
+
+    /**
+     * Parses a whole text as a number, gives the same result as Double.parseDouble
+     *
+     * @param text the text
+     * @return the number
+     * @throws NumberFormatException if the text isn't a number
+     */
+    static double parse(CharSequence text) {
+
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Writes a number into a buffer, the text is the same as the one of Double.toString. Whole numbers are
+     * written without going through Double.toString
+     *
+     * @param buffer where the text is written
+     * @param value the number
+     */
+    static void format(StringBuilder buffer, double value) {
+
+        if (value == (long) value && Math.abs(value) < MAX_PLAIN_VALUE && (value != 0 || 1 / value > 0)) {
+
+            buffer.append((long) value).append(".0");
+        }
+        else {
+
+            buffer.append(value);
+        }
+    }
+
+    /**
+     * Turns a number into text, the same text as the one of Double.toString
+     *
+     * @param value the number
+     * @return the text
+     */
+    static String format(double value) {
+
+        StringBuilder buffer = new StringBuilder(24);
+        format(buffer, value);
+        return buffer.toString();
+    }
+}
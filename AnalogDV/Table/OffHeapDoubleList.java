@@ -0,0 +1,220 @@
+/* This class is a list of numbers that keeps its values outside of the Java heap, as 8 bytes each in a direct
+ * byte buffer. It holds the numerical form of the elements of a StatisticalTable that uses off-heap storage,
+ * so that neither the elements nor their values are objects the garbage collector has to walk through.
+ * Values are only boxed when they are fetched, and those boxes are short lived.
+ */
+
+package analogdv;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.nio.ByteBuffer;
+
+class OffHeapDoubleList extends AbstractList<Double> implements RandomAccess {
+
+    /* FIELDS */
+
+    private static final int VALUE_SIZE = 8; // bytes of a double
+    private static final int MAX_VALUES = (Integer.MAX_VALUE - 8) / VALUE_SIZE; // values one direct buffer can hold
+
+    private ByteBuffer values; // the values, one after the other
+    private int size; // number of values
+
+    /* METHODS - constructors */
+
+    /**
+     * First constructor, empty list
+     */
+    OffHeapDoubleList() {
+
+        this.values = ByteBuffer.allocateDirect(VALUE_SIZE * 16);
+        this.size = 0;
+    }
+
+    /**
+     * Second constructor
+     *
+     * @param values ready-made collection of values
+     */
+    OffHeapDoubleList(Collection<Double> values) {
+
+        this();
+        this.ensureCapacity(values.size());
+        for (Double value : values) {
+
+            this.values.putDouble(this.size * VALUE_SIZE, value);
+            this.size++;
+        }
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Tests if an index points to a value of the list
+     *
+     * @param index position in the list
+     * @param limit size of the list, or size + 1 if the index is allowed to point just past the last value
+     */
+    private void testIndex(int index, int limit) {
+
+        if (index < 0 || index >= limit) {
+
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.size);
+        }
+    }
+
+    /**
+     * Makes room for more values, the old values are copied into a larger direct buffer
+     *
+     * @param capacity number of values the list should be able to hold
+     * @throws IllegalStateException if capacity is more than one direct buffer can hold (about 268 million)
+     */
+    private void ensureCapacity(int capacity) {
+
+        if (capacity > MAX_VALUES) {
+
+            throw new IllegalStateException("TABLE TOO LARGE FOR OFF-HEAP STORAGE, IT CAN HOLD AT MOST " + MAX_VALUES + " ELEMENTS");
+        }
+        else if ((long) capacity * VALUE_SIZE > this.values.capacity()) {
+
+            long newCapacity = Math.max((long) capacity * VALUE_SIZE, 2L * this.values.capacity());
+            ByteBuffer larger = ByteBuffer.allocateDirect((int) Math.min(newCapacity, (long) MAX_VALUES * VALUE_SIZE));
+            ByteBuffer old = this.values.duplicate();
+            old.position(0).limit(this.size * VALUE_SIZE);
+            larger.put(old);
+            this.values = larger;
+        }
+    }
+
+    /**
+     * Moves values within the buffer, used to open or close a gap
+     *
+     * @param from position of the first value to move
+     * @param to position the first value should end up at
+     * @param count number of values to move
+     */
+    private void moveValues(int from, int to, int count) {
+
+        if (to < from) {
+
+            for (int i = 0; i < count; i++) {
+
+                this.values.putLong((to + i) * VALUE_SIZE, this.values.getLong((from + i) * VALUE_SIZE));
+            }
+        }
+        else {
+
+            for (int i = count - 1; i >= 0; i--) {
+
+                this.values.putLong((to + i) * VALUE_SIZE, this.values.getLong((from + i) * VALUE_SIZE));
+            }
+        }
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Fetches a value without boxing it
+     *
+     * @param index position of the value
+     * @return the value
+     */
+    double getDouble(int index) {
+
+        this.testIndex(index, this.size);
+        return this.values.getDouble(index * VALUE_SIZE);
+    }
+
+    /**
+     * Fetches a value
+     *
+     * @param index position of the value
+     * @return the value
+     */
+    public Double get(int index) {
+
+        return this.getDouble(index);
+    }
+
+    /**
+     * Replaces a value
+     *
+     * @param index position of the value
+     * @param value new value
+     * @return the replaced value
+     */
+    public Double set(int index, Double value) {
+
+        double old = this.getDouble(index);
+        this.values.putDouble(index * VALUE_SIZE, value);
+
+        return old;
+    }
+
+    /**
+     * Inserts a value
+     *
+     * @param index position of the new value
+     * @param value new value
+     */
+    public void add(int index, Double value) {
+
+        this.testIndex(index, this.size + 1);
+        this.ensureCapacity(this.size + 1);
+        this.moveValues(index, index + 1, this.size - index);
+        this.values.putDouble(index * VALUE_SIZE, value);
+        this.size++;
+        this.modCount++;
+    }
+
+    /**
+     * Removes a value
+     *
+     * @param index position of the value
+     * @return the removed value
+     */
+    public Double remove(int index) {
+
+        double value = this.getDouble(index);
+        this.removeRange(index, index + 1);
+
+        return value;
+    }
+
+    /**
+     * Removes all values from one position up to, but not including, another
+     *
+     * @param fromIndex position of the first value to remove
+     * @param toIndex position after the last value to remove
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+
+        if (fromIndex < 0 || toIndex > this.size || fromIndex > toIndex) {
+
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds for length " + this.size);
+        }
+
+        this.moveValues(toIndex, fromIndex, this.size - toIndex);
+        this.size -= toIndex - fromIndex;
+        this.modCount++;
+    }
+
+    /**
+     * Removes all values, the buffer is kept for the values that are added next
+     */
+    public void clear() {
+
+        this.size = 0;
+        this.modCount++;
+    }
+
+    /**
+     * Fetches number of values
+     *
+     * @return number of values
+     */
+    public int size() {
+
+        return this.size;
+    }
+}
@@ -0,0 +1,308 @@
+/* This class is a list of strings that keeps its elements outside of the Java heap. The characters of the
+ * elements (UTF-8) are appended to direct byte buffers (segments), and where each element starts is kept in
+ * another direct buffer. The heap only holds a handful of buffer objects no matter how many elements there
+ * are, so the garbage collector has nothing to walk through.
+ * Removed and replaced elements leave unused bytes behind, which are given back once they make up more
+ * than half of the segments.
+ */
+
+package analogdv;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.RandomAccess;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+class OffHeapList extends AbstractList<String> implements RandomAccess {
+
+    /* FIELDS */
+
+    private static final int SEGMENT_SIZE = 1 << 20; // bytes in each segment, larger elements get a segment of their own
+    private static final int ENTRY_SIZE = 12; // segment (int), offset (int) and length (int) of each element
+    private static final int MAX_ENTRIES = (Integer.MAX_VALUE - 8) / ENTRY_SIZE; // entries one direct buffer can hold
+
+    private ArrayList<ByteBuffer> segments; // the characters of the elements
+    private ByteBuffer entries; // where each element is in the segments
+    private int size; // number of elements
+    private long usedBytes; // bytes written to the segments
+    private long unusedBytes; // bytes that belong to removed or replaced elements
+
+    /* METHODS - constructors */
+
+    /**
+     * First constructor, empty list
+     */
+    OffHeapList() {
+
+        this.segments = new ArrayList<ByteBuffer>();
+        this.entries = ByteBuffer.allocateDirect(ENTRY_SIZE * 16);
+        this.size = 0;
+        this.usedBytes = 0;
+        this.unusedBytes = 0;
+    }
+
+    /**
+     * Second constructor
+     *
+     * @param elements ready-made collection of elements
+     */
+    OffHeapList(Collection<String> elements) {
+
+        this();
+        for (String element : elements) {
+
+            this.add(element);
+        }
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Tests if an index points to an element of the list
+     *
+     * @param index position in the list
+     * @param limit size of the list, or size + 1 if the index is allowed to point just past the last element
+     */
+    private void testIndex(int index, int limit) {
+
+        if (index < 0 || index >= limit) {
+
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.size);
+        }
+    }
+
+    /**
+     * Makes room for more entries, the old entries are copied into a larger direct buffer
+     *
+     * @param capacity number of entries the list should be able to hold
+     * @throws IllegalStateException if capacity is more than the entry buffer can hold (about 178 million)
+     */
+    private void ensureCapacity(int capacity) {
+
+        if (capacity > MAX_ENTRIES) {
+
+            throw new IllegalStateException("TABLE TOO LARGE FOR OFF-HEAP STORAGE, IT CAN HOLD AT MOST " + MAX_ENTRIES + " ELEMENTS");
+        }
+        else if ((long) capacity * ENTRY_SIZE > this.entries.capacity()) {
+
+            long newCapacity = Math.max((long) capacity * ENTRY_SIZE, 2L * this.entries.capacity());
+            ByteBuffer larger = ByteBuffer.allocateDirect((int) Math.min(newCapacity, (long) MAX_ENTRIES * ENTRY_SIZE));
+            ByteBuffer old = this.entries.duplicate();
+            old.position(0).limit(this.size * ENTRY_SIZE);
+            larger.put(old);
+            this.entries = larger;
+        }
+    }
+
+    /**
+     * Moves entries within the entry buffer, used to open or close a gap
+     *
+     * @param from position of the first entry to move
+     * @param to position the first entry should end up at
+     * @param count number of entries to move
+     */
+    private void moveEntries(int from, int to, int count) {
+
+        int length = count * ENTRY_SIZE;
+        int source = from * ENTRY_SIZE;
+        int target = to * ENTRY_SIZE;
+
+        if (target < source) {
+
+            for (int i = 0; i < length; i += 4) {
+
+                this.entries.putInt(target + i, this.entries.getInt(source + i));
+            }
+        }
+        else {
+
+            for (int i = length - 4; i >= 0; i -= 4) {
+
+                this.entries.putInt(target + i, this.entries.getInt(source + i));
+            }
+        }
+    }
+
+    /**
+     * Writes the characters of an element to the segments
+     *
+     * @param entry position of the entry that should point to the characters
+     * @param element the element
+     */
+    private void writeElement(int entry, String element) {
+
+        byte[] bytes = element.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer segment = this.segments.isEmpty() ? null : this.segments.get(this.segments.size() - 1);
+
+        if (segment == null || segment.remaining() < bytes.length) {
+
+            segment = ByteBuffer.allocateDirect(Math.max(SEGMENT_SIZE, bytes.length));
+            this.segments.add(segment);
+        }
+
+        this.entries.putInt(entry * ENTRY_SIZE, this.segments.size() - 1);
+        this.entries.putInt(entry * ENTRY_SIZE + 4, segment.position());
+        this.entries.putInt(entry * ENTRY_SIZE + 8, bytes.length);
+        segment.put(bytes);
+        this.usedBytes += bytes.length;
+    }
+
+    /**
+     * Reads the characters of an element from the segments
+     *
+     * @param entry position of the entry that points to the characters
+     * @return the element
+     */
+    private String readElement(int entry) {
+
+        ByteBuffer segment = this.segments.get(this.entries.getInt(entry * ENTRY_SIZE));
+        byte[] bytes = new byte[this.entries.getInt(entry * ENTRY_SIZE + 8)];
+        segment.get(this.entries.getInt(entry * ENTRY_SIZE + 4), bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Marks the characters of elements as unused
+     *
+     * @param from position of the first entry
+     * @param to position after the last entry
+     */
+    private void release(int from, int to) {
+
+        for (int i = from; i < to; i++) {
+
+            this.unusedBytes += this.entries.getInt(i * ENTRY_SIZE + 8);
+        }
+    }
+
+    /**
+     * Copies all elements still in use into new segments, when more than half of the bytes are unused
+     */
+    private void compactIfWasteful() {
+
+        if (this.unusedBytes * 2 <= this.usedBytes || this.unusedBytes < SEGMENT_SIZE) {
+
+            return;
+        }
+
+        ArrayList<ByteBuffer> oldSegments = this.segments;
+        this.segments = new ArrayList<ByteBuffer>();
+        this.usedBytes = 0;
+        this.unusedBytes = 0;
+
+        for (int i = 0; i < this.size; i++) {
+
+            ByteBuffer segment = oldSegments.get(this.entries.getInt(i * ENTRY_SIZE));
+            byte[] bytes = new byte[this.entries.getInt(i * ENTRY_SIZE + 8)];
+            segment.get(this.entries.getInt(i * ENTRY_SIZE + 4), bytes);
+            this.writeElement(i, new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Fetches an element
+     *
+     * @param index position of the element
+     * @return the element
+     */
+    public String get(int index) {
+
+        this.testIndex(index, this.size);
+        return this.readElement(index);
+    }
+
+    /**
+     * Replaces an element
+     *
+     * @param index position of the element
+     * @param element new element
+     * @return the replaced element
+     */
+    public String set(int index, String element) {
+
+        this.testIndex(index, this.size);
+        String old = this.readElement(index);
+        this.release(index, index + 1);
+        this.writeElement(index, element);
+        this.compactIfWasteful();
+
+        return old;
+    }
+
+    /**
+     * Inserts an element
+     *
+     * @param index position of the new element
+     * @param element new element
+     */
+    public void add(int index, String element) {
+
+        this.testIndex(index, this.size + 1);
+        this.ensureCapacity(this.size + 1);
+        this.moveEntries(index, index + 1, this.size - index);
+        this.writeElement(index, element);
+        this.size++;
+        this.modCount++;
+    }
+
+    /**
+     * Removes an element
+     *
+     * @param index position of the element
+     * @return the removed element
+     */
+    public String remove(int index) {
+
+        this.testIndex(index, this.size);
+        String element = this.readElement(index);
+        this.removeRange(index, index + 1);
+
+        return element;
+    }
+
+    /**
+     * Removes all elements from one position up to, but not including, another
+     *
+     * @param fromIndex position of the first element to remove
+     * @param toIndex position after the last element to remove
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+
+        if (fromIndex < 0 || toIndex > this.size || fromIndex > toIndex) {
+
+            throw new IndexOutOfBoundsException("Range [" + fromIndex + ", " + toIndex + ") out of bounds for length " + this.size);
+        }
+
+        this.release(fromIndex, toIndex);
+        this.moveEntries(toIndex, fromIndex, this.size - toIndex);
+        this.size -= toIndex - fromIndex;
+        this.modCount++;
+        this.compactIfWasteful();
+    }
+
+    /**
+     * Removes all elements, the segments are left to the garbage collector which frees their memory
+     */
+    public void clear() {
+
+        this.segments = new ArrayList<ByteBuffer>();
+        this.size = 0;
+        this.usedBytes = 0;
+        this.unusedBytes = 0;
+        this.modCount++;
+    }
+
+    /**
+     * Fetches number of elements
+     *
+     * @return number of elements
+     */
+    public int size() {
+
+        return this.size;
+    }
+}
@@ -0,0 +1,61 @@
+/* This class times one operation of a table, and reports it to the metrics of the table and to Flight
+ * Recorder. The clock is only read if the table has metrics, and the event is only filled in and committed
+ * if a recording wants it, so a table without metrics and without a recording pays for little more than
+ * the creation of this object.
+ */
+
+package analogdv;
+
+class OperationTimer {
+
+    /* FIELDS */
+
+    private TableMetrics metrics; // where the operation is reported
+    private String operation; // name of the operation
+    private TableOperationEvent event; // Flight Recorder event of the operation
+    private long start; // System.nanoTime() when the operation started, 0 without metrics
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor, starts the timer
+     *
+     * @param metrics where the operation is reported
+     * @param operation name of the operation, see TableMetrics
+     */
+    OperationTimer(TableMetrics metrics, String operation) {
+
+        this.metrics = metrics;
+        this.operation = operation;
+        this.event = new TableOperationEvent();
+        this.event.begin();
+        this.start = metrics == TableMetrics.NONE ? 0 : System.nanoTime();
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Stops the timer and reports the operation
+     *
+     * @param elements number of elements the operation went through
+     * @param bytesRead number of bytes read from file
+     * @param bytesWritten number of bytes written to file
+     */
+    void stop(long elements, long bytesRead, long bytesWritten) {
+
+        if (this.metrics != TableMetrics.NONE) {
+
+            this.metrics.record(this.operation, System.nanoTime() - this.start, elements, bytesRead, bytesWritten);
+        }
+
+        this.event.end();
+        if (this.event.shouldCommit()) {
+
+            this.event.operation = this.operation;
+            this.event.elements = elements;
+            this.event.bytesRead = bytesRead;
+            this.event.bytesWritten = bytesWritten;
+            this.event.commit();
+        }
+    }
+}
@@ -0,0 +1,647 @@
+/* This class stores a table in several files instead of one, so that a large table doesn't have to be
+ * rewritten as a whole for every change. The elements are split into segments of at most SEGMENT_SIZE
+ * elements, each segment is a file in the same format as the other table files, and a small manifest lists
+ * the segments in order. A change only rewrites the segments it touches, and the manifest. Changed segments
+ * are written to new files and the manifest is replaced with one move, so a crash leaves either the old or
+ * the new table behind, never a mix of them. The segments are read in parallel when the table is opened, and
+ * statistics are calculated for each segment in parallel and then merged, see summarize().
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.io.*;
+
+public class SegmentedTable extends Table {
+
+    /* FIELDS */
+
+    static final int SEGMENT_SIZE = 65536; // max number of elements in a segment
+
+    private File manifest; // file that lists the segments in order, each segment is a file next to it
+    private ArrayList<Segment> segments; // segments in the same order as the elements
+    private int nextId; // id of the next segment file that is written
+
+    private static ExecutorService pool; // threads that read and summarize segments, shared by all tables, null until needed
+
+    /* elements of the table that are stored in the same file */
+    private static class Segment {
+
+        private int id; // end of the name of the file, -1 if the segment hasn't been written yet
+        private int size; // number of elements
+        private boolean isDirty; // true if the elements have changed since the segment was written
+        private StatisticalSummary summary; // statistics of the elements, null until calculated or after changes
+        private int summaryColumns; // number of columns the summary was calculated with
+        private int summaryColumn; // column of the first element when the summary was calculated
+
+        /**
+         * Constructor
+         *
+         * @param id end of the name of the file, -1 if it hasn't been written yet
+         * @param size number of elements
+         */
+        private Segment(int id, int size) {
+
+            this.id = id;
+            this.size = size;
+            this.isDirty = id == -1;
+        }
+
+        /**
+         * Marks the segment as changed, it is written to a new file and its statistics are calculated again
+         */
+        private void changed() {
+
+            this.isDirty = true;
+            this.summary = null;
+        }
+    }
+
+    /* METHODS - constructors */
+
+    /**
+     * First constructor, if the manifest already exists its number of columns is used instead of the given one
+     *
+     * @param path where the manifest is
+     * @param columns max number of columns in a row
+     * @throws IOException if something happens while reading from file or if a file is not formatted properly
+     * @throws Exception if columns < 1
+     */
+    public SegmentedTable(String path, int columns) throws IOException, Exception {
+
+        super(columns);
+        this.manifest = new File(path);
+        this.segments = new ArrayList<Segment>();
+        this.nextId = 0;
+        this.open();
+    }
+
+    /**
+     * Second constructor, elements are stored as codes of a dictionary, see Table.useDictionary(StringDictionary)
+     *
+     * @param path where the manifest is
+     * @param columns max number of columns in a row
+     * @param dictionary the dictionary, can be shared between tables
+     * @throws IOException if something happens while reading from file or if a file is not formatted properly
+     * @throws Exception if columns < 1
+     */
+    public SegmentedTable(String path, int columns, StringDictionary dictionary) throws IOException, Exception {
+
+        super(columns);
+        super.useDictionary(dictionary); // before the segments are read, so repeated values are only stored once
+        this.manifest = new File(path);
+        this.segments = new ArrayList<Segment>();
+        this.nextId = 0;
+        this.open();
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Fetches the file of a segment
+     *
+     * @param id id of the segment
+     * @return the file, next to the manifest
+     */
+    private File getSegmentFile(int id) {
+
+        return new File(this.manifest.getPath() + "." + id);
+    }
+
+    /**
+     * Fetches the threads that segments are read and summarized on, they are started the first time they are
+     * needed and kept for the rest of the program, so repeated calls don't pay for starting threads
+     *
+     * @return pool with as many threads as there are processors
+     */
+    private static synchronized ExecutorService getPool() {
+
+        if (pool == null) {
+
+            pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+
+                Thread thread = new Thread(task, "segmented-table");
+                thread.setDaemon(true); // doesn't keep the program running
+                return thread;
+            });
+        }
+
+        return pool;
+    }
+
+    /**
+     * Runs tasks on the shared threads, and waits for all of them
+     *
+     * @param tasks the tasks
+     * @return results of the tasks, in the same order as the tasks
+     * @throws IOException if a task fails, or if the thread is interrupted while waiting
+     */
+    private static <T> ArrayList<T> inParallel(ArrayList<Callable<T>> tasks) throws IOException {
+
+        ArrayList<T> results = new ArrayList<T>(tasks.size());
+        if (tasks.isEmpty()) {
+
+            return results;
+        }
+
+        try {
+
+            for (Future<T> result : getPool().invokeAll(tasks)) {
+
+                results.add(result.get());
+            }
+        }
+        catch (ExecutionException e) {
+
+            if (e.getCause() instanceof IOException) {
+
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+        catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("INTERRUPTED WHILE WAITING FOR SEGMENTS");
+        }
+
+        return results;
+    }
+
+    /**
+     * Reads the manifest and all segments, or creates an empty manifest if there is none
+     *
+     * @throws IOException if something happens while reading from file or if a file is not formatted properly
+     * @throws Exception if the manifest has columns < 1
+     */
+    private void open() throws IOException, Exception {
+
+        if (!this.manifest.exists() || this.manifest.length() == 0) {
+
+            this.writeManifest();
+            return;
+        }
+
+        int columns = -1;
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(this.manifest.toPath(), StandardCharsets.UTF_8)) {
+
+            lineNumber++;
+            String[] fields = line.split("\t");
+
+            try {
+
+                if (fields[0].equals("columns") && fields.length == 2) {
+
+                    columns = Integer.parseInt(fields[1]);
+                }
+                else if (fields[0].equals("next") && fields.length == 2) {
+
+                    this.nextId = Integer.parseInt(fields[1]);
+                }
+                else if (fields[0].equals("segment") && fields.length == 3) {
+
+                    this.segments.add(new Segment(Integer.parseInt(fields[1]), Integer.parseInt(fields[2])));
+                }
+                else {
+
+                    throw new NumberFormatException();
+                }
+            }
+            catch (NumberFormatException e) {
+
+                String message = "MANIFEST IS NOT FORMATTED PROPERLY";
+                throw new IOException(generateErrorMessage(message, lineNumber, this.manifest.getPath()));
+            }
+        }
+
+        if (columns != -1) {
+
+            super.setColumns(columns);
+        }
+
+        ArrayList<Callable<ArrayList<String>>> tasks = new ArrayList<Callable<ArrayList<String>>>();
+        int size = 0;
+        for (Segment segment : this.segments) {
+
+            tasks.add(() -> this.readSegment(segment));
+            size += segment.size;
+        }
+
+        ArrayList<String> elements = new ArrayList<String>(size);
+        for (ArrayList<String> segmentElements : inParallel(tasks)) {
+
+            elements.addAll(segmentElements);
+        }
+        super.add(elements); // already in the segments, so nothing is written
+    }
+
+    /**
+     * Reads all elements of a segment
+     *
+     * @param segment the segment
+     * @return elements of the segment
+     * @throws IOException if something happens while reading from file, if the file is not formatted properly,
+     * or if it doesn't have as many elements as the manifest says
+     */
+    private ArrayList<String> readSegment(Segment segment) throws IOException {
+
+        String path = this.getSegmentFile(segment.id).getPath();
+        ArrayList<String> elements = new ArrayList<String>(segment.size);
+        TableReader reader = new TableReader(path);
+        ArrayList<String> row;
+        OperationTimer timer = super.startTimer(TableMetrics.PARSE);
+
+        try {
+
+            while ((row = reader.readRow()) != null) {
+
+                elements.addAll(row);
+            }
+        }
+        finally {
+
+            reader.close();
+        }
+
+        if (elements.size() != segment.size) {
+
+            String message = "SEGMENT HAS " + elements.size() + " ELEMENTS, MANIFEST SAYS " + segment.size;
+            throw new IOException(generateErrorMessage(message, reader.getLineNumber(), path));
+        }
+
+        timer.stop(elements.size(), reader.getBytesRead(), 0);
+        return elements;
+    }
+
+    /**
+     * Adds elements to the end of the last segment, and to new segments once it is full
+     *
+     * @param count number of elements
+     */
+    private void append(int count) {
+
+        if (!this.segments.isEmpty()) {
+
+            Segment last = this.segments.get(this.segments.size() - 1);
+            int added = Math.min(SEGMENT_SIZE - last.size, count);
+            if (added > 0) {
+
+                last.size += added;
+                last.changed();
+                count -= added;
+            }
+        }
+
+        while (count > 0) {
+
+            int size = Math.min(count, SEGMENT_SIZE);
+            this.segments.add(new Segment(-1, size));
+            count -= size;
+        }
+    }
+
+    /**
+     * Removes elements from the segments they are in, segments that become empty are dropped
+     *
+     * @param fromCell where in the table the first element to remove is
+     * @param toCell where in the table the element after the last one to remove is
+     * @param obsolete ids of segment files that are deleted once the manifest is written
+     */
+    private void removeCells(int fromCell, int toCell, ArrayList<Integer> obsolete) {
+
+        int start = 0;
+        Iterator<Segment> iterator = this.segments.iterator();
+
+        while (iterator.hasNext()) {
+
+            Segment segment = iterator.next();
+            int end = start + segment.size;
+            int removed = Math.min(end, toCell) - Math.max(start, fromCell);
+
+            if (removed > 0) {
+
+                segment.size -= removed;
+                segment.changed();
+            }
+            if (segment.size == 0) {
+
+                if (segment.id != -1) {
+
+                    obsolete.add(segment.id);
+                }
+                iterator.remove();
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Joins changed segments with their neighbours while they fit in one segment, so that removals don't
+     * leave many small segments behind
+     *
+     * @param obsolete ids of segment files that are deleted once the manifest is written
+     */
+    private void joinSmallSegments(ArrayList<Integer> obsolete) {
+
+        int i = 0;
+        while (i + 1 < this.segments.size()) {
+
+            Segment segment = this.segments.get(i);
+            Segment next = this.segments.get(i + 1);
+
+            if ((segment.isDirty || next.isDirty) && segment.size + next.size <= SEGMENT_SIZE) {
+
+                segment.size += next.size;
+                segment.changed();
+                if (next.id != -1) {
+
+                    obsolete.add(next.id);
+                }
+                this.segments.remove(i + 1);
+            }
+            else {
+
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Writes every changed segment to a new file, then the manifest, then deletes the files no longer in use
+     *
+     * @param obsolete ids of segment files that are no longer in use
+     * @throws IOException if something happens while writing to file
+     */
+    private void writeSegments(ArrayList<Integer> obsolete) throws IOException {
+
+        List<String> elements = super.getElements();
+        int start = 0;
+        int writtenElements = 0;
+        long bytesWritten = 0;
+        OperationTimer timer = super.startTimer(TableMetrics.PERSIST);
+
+        for (Segment segment : this.segments) {
+
+            if (segment.isDirty) {
+
+                if (segment.id != -1) {
+
+                    obsolete.add(segment.id);
+                }
+                segment.id = this.nextId;
+                this.nextId++;
+
+                byte[] content = super.render(elements.subList(start, start + segment.size)).getBytes(StandardCharsets.UTF_8);
+                TableFiles.writeForced(this.getSegmentFile(segment.id), content); // on disk before the manifest points at it
+                segment.isDirty = false;
+                writtenElements += segment.size;
+                bytesWritten += content.length;
+            }
+            start += segment.size;
+        }
+
+        bytesWritten += this.writeManifest();
+        for (int id : obsolete) {
+
+            this.getSegmentFile(id).delete();
+        }
+        timer.stop(writtenElements, 0, bytesWritten);
+    }
+
+    /**
+     * Replaces the manifest, the new one is written to a temporary file which is then moved in its place
+     *
+     * @return number of bytes written
+     * @throws IOException if something happens while writing to file
+     */
+    private long writeManifest() throws IOException {
+
+        StringBuilder content = new StringBuilder();
+        content.append("columns\t" + super.getColumns() + "\n");
+        content.append("next\t" + this.nextId + "\n");
+        for (Segment segment : this.segments) {
+
+            content.append("segment\t" + segment.id + "\t" + segment.size + "\n");
+        }
+
+        byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+        TableFiles.replace(this.manifest, bytes);
+
+        return bytes.length;
+    }
+
+    /**
+     * Calculates the statistics of the elements of a segment
+     *
+     * @param elements elements of the segment, a copy that no other thread uses
+     * @param firstCell where in the table the first element of the segment is
+     * @param segment the segment, its summary is replaced
+     * @param columns max number of columns in a row
+     * @return statistics of the segment
+     * @throws IOException if an element can't be converted to double
+     * @throws Exception if columns < 1
+     */
+    private static StatisticalSummary summarize(List<String> elements, int firstCell, Segment segment, int columns) throws IOException, Exception {
+
+        StatisticalSummary summary = new StatisticalSummary(columns, firstCell);
+        int cellNumber = firstCell;
+
+        for (String element : elements) {
+
+            try {
+
+                summary.add(NumberCodec.parse(element));
+            }
+            catch (NumberFormatException e) {
+
+                throw new IOException("CANNOT CONVERT ELEMENT IN CELL " + (cellNumber + 1) + " TO DOUBLE");
+            }
+            cellNumber++;
+        }
+
+        segment.summary = summary;
+        segment.summaryColumns = columns;
+        segment.summaryColumn = firstCell % columns;
+        return summary;
+    }
+
+    /**
+     * Applies queued changes to the table, then rewrites the segments they touched and the manifest
+     *
+     * @param editor queued changes
+     * @throws Exception if something happens while formatting table
+     * @throws IOException if something happens while writing to file
+     */
+    protected void commit(TableEditor editor) throws IOException, Exception {
+
+        super.commit(editor); // nothing is changed if a change isn't viable
+        ArrayList<Integer> obsolete = new ArrayList<Integer>();
+
+        for (String[] record : editor.getRecords()) {
+
+            switch (record[0].charAt(0)) {
+
+                case TableEditor.ADD:
+                case TableEditor.ADD_LIST:
+                    this.append(record.length - 1);
+                    break;
+                case TableEditor.REMOVE:
+                    int cellNumber = Integer.parseInt(record[1]);
+                    this.removeCells(cellNumber, cellNumber + 1, obsolete);
+                    break;
+                case TableEditor.REMOVE_RANGE:
+                    this.removeCells(Integer.parseInt(record[1]), Integer.parseInt(record[2]), obsolete);
+                    break;
+                case TableEditor.SET_COLUMNS: // only the manifest changes
+                    break;
+                case TableEditor.CLEAR:
+                    this.removeCells(0, Integer.MAX_VALUE, obsolete);
+                    break;
+            }
+        }
+
+        this.joinSmallSegments(obsolete);
+        this.writeSegments(obsolete);
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Lets user add an element to table
+     *
+     * @param element new element to be insterted to table
+     * @throws Exception if something happens while formatting table
+     * @throws IOException if something happens while writing to file
+     */
+    public void add(String element) throws IOException, Exception {
+
+        TableEditor editor = new TableEditor();
+        editor.add(element);
+        this.commit(editor);
+    }
+
+    /**
+     * Lets user add a list of elements to table
+     *
+     * @param elements new elements to be insterted to table
+     * @throws Exception if something happens while formatting table
+     * @throws IOException if something happens while writing to file
+     */
+    public void add(ArrayList<String> elements) throws IOException, Exception {
+
+        TableEditor editor = new TableEditor();
+        editor.add(elements);
+        this.commit(editor);
+    }
+
+    /**
+     * Removes an element with specified index from the table, only its segment is rewritten
+     *
+     * @param cellNumber is where in the table the element is
+     * @throws Exception if something happens while formatting table
+     * @throws IOException if something happens while writing to file
+     */
+    public void remove(int cellNumber) throws IOException, Exception {
+
+        TableEditor editor = new TableEditor();
+        editor.remove(cellNumber);
+        this.commit(editor);
+    }
+
+    /**
+     * Lets user change number of columns on each row, only the manifest is rewritten
+     *
+     * @param columns new maximum number of columns in a row
+     * @throws Exception if columns < 1
+     * @throws IOException if something happens while writing to file
+     */
+    public void setColumns(int columns) throws IOException, Exception {
+
+        TableEditor editor = new TableEditor();
+        editor.setColumns(columns);
+        this.commit(editor);
+    }
+
+    /**
+     * Clears the entire table, and its contents are gone forever
+     *
+     * @throws Exception if something happens while formatting table
+     * @throws IOException if something happens while writing to file
+     */
+    public void clear() throws IOException, Exception {
+
+        TableEditor editor = new TableEditor();
+        editor.clear();
+        this.commit(editor);
+    }
+
+    /**
+     * Calculates the statistics of all elements. Each segment is summarized on its own, in parallel, and the
+     * summaries are merged in order. Summaries of segments that haven't changed are kept between calls
+     *
+     * @return statistics of all elements
+     * @throws IOException if an element can't be converted to double
+     * @throws Exception if something happens while calculating
+     */
+    public StatisticalSummary summarize() throws IOException, Exception {
+
+        OperationTimer timer = super.startTimer(TableMetrics.STATISTIC + "summary");
+        int columns = super.getColumns();
+        List<String> elements = super.getElements();
+        ArrayList<Callable<StatisticalSummary>> tasks = new ArrayList<Callable<StatisticalSummary>>();
+        int start = 0;
+
+        for (Segment segment : this.segments) {
+
+            int firstCell = start;
+            if (segment.summary == null || segment.summaryColumns != columns || segment.summaryColumn != firstCell % columns) {
+
+                // copied here, since lookups in the table's list aren't safe from several threads at once
+                List<String> segmentElements = new ArrayList<String>(elements.subList(firstCell, firstCell + segment.size));
+                tasks.add(() -> summarize(segmentElements, firstCell, segment, columns));
+            }
+            start += segment.size;
+        }
+        inParallel(tasks);
+
+        StatisticalSummary summary = new StatisticalSummary(columns);
+        for (Segment segment : this.segments) {
+
+            summary.merge(segment.summary);
+        }
+
+        timer.stop(elements.size(), 0, 0);
+        return summary;
+    }
+
+    /**
+     * Fetches number of segments the table is stored in
+     *
+     * @return number of segments
+     */
+    public int getNumberOfSegments() {
+
+        return this.segments.size();
+    }
+
+    /* METHODS - other */
+
+    /**
+     * Fetches the string representation of the table
+     *
+     * @return string rep. of table
+     */
+    public String toString() {
+
+        return super.getTable();
+    }
+}
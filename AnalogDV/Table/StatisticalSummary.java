@@ -0,0 +1,567 @@
+/* This class calculates statistics of a table one value at a time (a streaming fold), so that the values never
+ * have to be kept in memory. Values are given in the same order as the cells of a table, which is how the
+ * column of each value is known. Memory use only depends on the number of columns.
+ * Summaries of consecutive parts of a table can be merged, so that the parts can be summarized in parallel.
+ * A part that doesn't start at the beginning of a row keeps the values of its first row apart, since that row
+ * is only complete once it is merged after the part that has the beginning of the row.
+ */
+
+package analogdv;
+import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.io.*;
+
+public class StatisticalSummary {
+
+    /* FIELDS */
+
+    private static final int FILE_FORMAT = 2; // version of summary files, older ones kept raw sums that lose precision
+
+    private int columns; // number of columns on each row
+    private long count; // number of values
+    private double sum; // sum of all values
+    private double mean; // running mean, used for a numerically stable variance
+    private double squaredDistances; // sum of squared distances from the running mean
+    private double min; // smallest value
+    private double max; // largest value
+    private long fullRows; // number of rows that have a value in every column
+    private double[] columnMeans; // running mean of each column, full rows only
+    private double[][] coMoments; // sum of products of distances from the column means, for each pair of columns
+    private double[] currentRow; // values of the row that isn't full yet
+    private int firstColumn; // column of the first value, counting from 0
+    private int nextColumn; // column of the next value, counting from 0
+    private boolean isInHead; // true while the values are on a first row that doesn't start at column 0
+    private double[] head; // values of a first row that doesn't start at column 0, not part of the row sums
+
+    /* METHODS - constructors */
+
+    /**
+     * First constructor, the values start at the first cell of a table
+     *
+     * @param columns max number of columns in a row
+     * @throws Exception if columns < 1
+     */
+    public StatisticalSummary(int columns) throws Exception {
+
+        this(columns, 0);
+    }
+
+    /**
+     * Second constructor, for a part of a table
+     *
+     * @param columns max number of columns in a row
+     * @param firstCell where in the table the first value is, counting from 0
+     * @throws Exception if columns < 1, or if firstCell < 0
+     */
+    public StatisticalSummary(int columns, long firstCell) throws Exception {
+
+        if (columns < 1) {
+
+            throw new Exception("NUMBER OF COLUMNS ON EACH ROW SHOULD BE GREATER THAN 0");
+        }
+        else if (firstCell < 0) {
+
+            throw new Exception("CELL NUMBER SHOULD NOT BE LESS THAN 0");
+        }
+
+        this.columns = columns;
+        this.count = 0;
+        this.sum = 0;
+        this.mean = 0;
+        this.squaredDistances = 0;
+        this.min = Double.POSITIVE_INFINITY;
+        this.max = Double.NEGATIVE_INFINITY;
+        this.fullRows = 0;
+        this.columnMeans = new double[columns];
+        this.coMoments = new double[columns][columns];
+        this.currentRow = new double[columns];
+        this.firstColumn = (int) (firstCell % columns);
+        this.nextColumn = this.firstColumn;
+        this.isInHead = this.firstColumn != 0;
+        this.head = new double[columns];
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Adds a full row to the column means and co-moments, the same way add(double) updates the mean and the
+     * squared distances, so that large values with small differences between them don't lose their precision
+     *
+     * @param row values of the row
+     */
+    private void addRow(double[] row) {
+
+        this.fullRows++;
+        double[] distances = new double[this.columns]; // distances from the means before the row was added
+        for (int i = 0; i < this.columns; i++) {
+
+            distances[i] = row[i] - this.columnMeans[i];
+            this.columnMeans[i] += distances[i] / this.fullRows;
+        }
+
+        for (int i = 0; i < this.columns; i++) {
+
+            for (int j = 0; j < this.columns; j++) {
+
+                this.coMoments[i][j] += distances[i] * (row[j] - this.columnMeans[j]);
+            }
+        }
+    }
+
+    /**
+     * Puts a value in its row, full rows are added to the column means and co-moments
+     *
+     * @param value the value
+     * @param column column of the value
+     */
+    private void placeInRow(double value, int column) {
+
+        if (this.isInHead) {
+
+            this.head[column] = value;
+            this.isInHead = column != this.columns - 1;
+        }
+        else {
+
+            this.currentRow[column] = value;
+            if (column == this.columns - 1) {
+
+                this.addRow(this.currentRow);
+            }
+        }
+    }
+
+    /**
+     * Adds a line with a name and some numbers to the text of a summary file
+     *
+     * @param text text of the file
+     * @param name what the numbers are
+     * @param values the numbers
+     */
+    private static void appendLine(StringBuilder text, String name, double... values) {
+
+        text.append(name);
+        for (double value : values) {
+
+            text.append('\t').append(value); // Double.toString, which reads back as the exact same number
+        }
+        text.append('\n');
+    }
+
+    /**
+     * Reads the numbers of a line of a summary file into an array
+     *
+     * @param lines lines of the file, name -> numbers
+     * @param name what the numbers are
+     * @param values where the numbers are put, should have as many elements as the line has numbers
+     * @throws IOException if the line is missing, or doesn't have as many numbers as the array
+     */
+    private static void readLine(HashMap<String, String[]> lines, String name, double[] values) throws IOException {
+
+        String[] fields = lines.get(name);
+        if (fields == null || fields.length != values.length + 1) {
+
+            throw new IOException("SUMMARY FILE IS NOT FORMATTED PROPERLY");
+        }
+
+        for (int i = 0; i < values.length; i++) {
+
+            values[i] = Double.parseDouble(fields[i + 1]);
+        }
+    }
+
+    /**
+     * Reads the number of a line of a summary file that has only one
+     *
+     * @param lines lines of the file, name -> numbers
+     * @param name what the number is
+     * @return the number
+     * @throws IOException if the line is missing, or doesn't have one number
+     */
+    private static double readLine(HashMap<String, String[]> lines, String name) throws IOException {
+
+        double[] value = new double[1];
+        readLine(lines, name, value);
+        return value[0];
+    }
+
+    /**
+     * Tests if the table has values to calculate with
+     *
+     * @throws Exception if no values have been added
+     */
+    private void testNotEmpty() throws Exception {
+
+        if (this.count == 0) {
+
+            throw new Exception("CANNOT PERFORM OPERATION ON EMPTY SET");
+        }
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Reads a table file and calculates its statistics, without loading the table
+     *
+     * @param path where the file is
+     * @param columns max number of columns in a row
+     * @return statistics of all values in the file
+     * @throws IOException if something happens while reading from file, or if an element can't be converted to double
+     * @throws Exception if columns < 1
+     */
+    public static StatisticalSummary read(String path, int columns) throws IOException, Exception {
+
+        StatisticalSummary summary = new StatisticalSummary(columns);
+        TableReader reader = new TableReader(path);
+        String line;
+
+        try {
+
+            while ((line = reader.readRowLine()) != null) { // elements are parsed where they are in the line
+
+                for (int i = 0; i < reader.getNumberOfElements(); i++) {
+
+                    try {
+
+                        summary.add(NumberCodec.parse(line, reader.getElementStart(i), reader.getElementEnd(i)));
+                    }
+                    catch (NumberFormatException e) {
+
+                        String message = "CANNOT CONVERT ELEMENT IN CELL" + (i + 1) + " TO DOUBLE";
+                        throw new IOException(Table.generateErrorMessage(message, reader.getLineNumber(), path));
+                    }
+                }
+            }
+        }
+        finally {
+
+            reader.close();
+        }
+
+        return summary;
+    }
+
+    /**
+     * Reads a summary that was written with store(File, String), if it is still up to date. A summary is a
+     * shortcut, so one that can't be used for any reason is ignored and has to be calculated again
+     *
+     * @param file where the summary is
+     * @param stamp tells what the summary should have been calculated from, e.g. length of the table file, no tabs
+     * @return the summary, null if there is none, if its stamp isn't the given one, or if it can't be read
+     */
+    static StatisticalSummary load(File file, String stamp) {
+
+        if (!file.exists()) {
+
+            return null;
+        }
+
+        try {
+
+            HashMap<String, String[]> lines = new HashMap<String, String[]>();
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+
+                String[] fields = line.split("\t", -1);
+                lines.put(fields[0], fields);
+            }
+
+            String[] stampLine = lines.get("stamp");
+            if (stampLine == null || stampLine.length != 2 || !stampLine[1].equals(stamp)) {
+
+                return null;
+            }
+            else if (readLine(lines, "format") != FILE_FORMAT) { // calculated another way, so it is calculated again
+
+                return null;
+            }
+
+            int columns = (int) readLine(lines, "columns");
+            StatisticalSummary summary = new StatisticalSummary(columns, (long) readLine(lines, "firstColumn"));
+            summary.count = (long) readLine(lines, "count");
+            summary.sum = readLine(lines, "sum");
+            summary.mean = readLine(lines, "mean");
+            summary.squaredDistances = readLine(lines, "squaredDistances");
+            summary.min = readLine(lines, "min");
+            summary.max = readLine(lines, "max");
+            summary.fullRows = (long) readLine(lines, "fullRows");
+            readLine(lines, "columnMeans", summary.columnMeans);
+            for (int i = 0; i < columns; i++) {
+
+                readLine(lines, "coMoments" + i, summary.coMoments[i]);
+            }
+            readLine(lines, "currentRow", summary.currentRow);
+            summary.nextColumn = (int) readLine(lines, "nextColumn");
+            summary.isInHead = readLine(lines, "isInHead") != 0;
+            readLine(lines, "head", summary.head);
+
+            return summary;
+        }
+        catch (Exception e) { // written by someone else, or cut off
+
+            return null;
+        }
+    }
+
+    /**
+     * Writes the summary to a file, so that it can be read back instead of calculated again. The summary is
+     * written to a temporary file which then replaces the old one, so a reader never sees half a summary
+     *
+     * @param file where the summary is written
+     * @param stamp tells what the summary was calculated from, see load(File, String)
+     * @throws IOException if something happens while writing to file
+     */
+    void store(File file, String stamp) throws IOException {
+
+        StringBuilder text = new StringBuilder();
+        text.append("stamp\t" + stamp + "\n");
+        appendLine(text, "format", FILE_FORMAT);
+        appendLine(text, "columns", this.columns);
+        appendLine(text, "firstColumn", this.firstColumn);
+        appendLine(text, "count", this.count);
+        appendLine(text, "sum", this.sum);
+        appendLine(text, "mean", this.mean);
+        appendLine(text, "squaredDistances", this.squaredDistances);
+        appendLine(text, "min", this.min);
+        appendLine(text, "max", this.max);
+        appendLine(text, "fullRows", this.fullRows);
+        appendLine(text, "columnMeans", this.columnMeans);
+        for (int i = 0; i < this.columns; i++) {
+
+            appendLine(text, "coMoments" + i, this.coMoments[i]);
+        }
+        appendLine(text, "currentRow", this.currentRow);
+        appendLine(text, "nextColumn", this.nextColumn);
+        appendLine(text, "isInHead", this.isInHead ? 1 : 0);
+        appendLine(text, "head", this.head);
+
+        TableFiles.replace(file, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds the next value of the table
+     *
+     * @param value the value
+     */
+    public void add(double value) {
+
+        int column = this.nextColumn;
+        this.nextColumn = (column + 1) % this.columns;
+        this.count++;
+        this.sum += value;
+
+        double distance = value - this.mean;
+        this.mean += distance / this.count;
+        this.squaredDistances += distance * (value - this.mean);
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+
+        this.placeInRow(value, column);
+    }
+
+    /**
+     * Adds the statistics of the part of the table that comes right after the part of this summary, as if
+     * its values had been added to this summary one by one
+     *
+     * @param other summary of the next part of the table
+     * @throws Exception if the other summary has another number of columns, or doesn't start where this one ends
+     */
+    public void merge(StatisticalSummary other) throws Exception {
+
+        if (other.columns != this.columns || other.firstColumn != this.nextColumn) {
+
+            throw new Exception("SUMMARIES DON'T FOLLOW EACH OTHER, THE OTHER ONE SHOULD START WHERE THIS ONE ENDS");
+        }
+        else if (other.count == 0) {
+
+            return;
+        }
+
+        double count = this.count + other.count;
+        double distance = other.mean - this.mean;
+        this.squaredDistances += other.squaredDistances + distance * distance * this.count * other.count / count;
+        this.mean += distance * other.count / count;
+        this.count += other.count;
+        this.sum += other.sum;
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+
+        if (other.firstColumn != 0) { // the first row of the other one goes on where the last row of this one ends
+
+            int headEnd = other.isInHead ? other.nextColumn : this.columns;
+            for (int column = other.firstColumn; column < headEnd; column++) {
+
+                this.placeInRow(other.head[column], column);
+            }
+        }
+
+        if (!other.isInHead && other.fullRows > 0) { // co-moments are merged like the squared distances above
+
+            double rows = this.fullRows + other.fullRows;
+            double[] distances = new double[this.columns];
+            for (int i = 0; i < this.columns; i++) {
+
+                distances[i] = other.columnMeans[i] - this.columnMeans[i];
+            }
+
+            for (int i = 0; i < this.columns; i++) {
+
+                for (int j = 0; j < this.columns; j++) {
+
+                    this.coMoments[i][j] += other.coMoments[i][j] + distances[i] * distances[j] * this.fullRows * other.fullRows / rows;
+                }
+                this.columnMeans[i] += distances[i] * other.fullRows / rows;
+            }
+            this.fullRows += other.fullRows;
+        }
+
+        if (!other.isInHead) {
+
+            System.arraycopy(other.currentRow, 0, this.currentRow, 0, this.columns);
+        }
+
+        this.nextColumn = other.nextColumn;
+    }
+
+    /**
+     * Fetches number of values
+     *
+     * @return number of values
+     */
+    public long getCount() {
+
+        return this.count;
+    }
+
+    /**
+     * Fetches sum of all values
+     *
+     * @return sum
+     */
+    public double getSum() {
+
+        return this.sum;
+    }
+
+    /**
+     * Fetches smallest value
+     *
+     * @return smallest value
+     * @throws Exception if no values have been added
+     */
+    public double getMin() throws Exception {
+
+        this.testNotEmpty();
+        return this.min;
+    }
+
+    /**
+     * Fetches largest value
+     *
+     * @return largest value
+     * @throws Exception if no values have been added
+     */
+    public double getMax() throws Exception {
+
+        this.testNotEmpty();
+        return this.max;
+    }
+
+    /**
+     * Calculates the mean value of all values
+     *
+     * @return mean value
+     * @throws Exception if no values have been added
+     */
+    public double getMeanValue() throws Exception {
+
+        this.testNotEmpty();
+        return this.sum / this.count;
+    }
+
+    /**
+     * Calculates the standard deviation of all values
+     *
+     * @param setting determines if it is a population or sample data that is being calculated
+     * @return standard deviation
+     * @throws Exception if no values have been added, or if setting isn't 0 or 1
+     */
+    public double getStandardDeviation(int setting) throws Exception {
+
+        this.testNotEmpty();
+
+        if (setting == 0) {
+
+            return Math.sqrt(this.squaredDistances / (this.count - 1)); // sampe data
+        }
+        else if (setting == 1) {
+
+            return Math.sqrt(this.squaredDistances / this.count); // whole population
+        }
+
+        throw new Exception("CHOOSE BETWEEN\n0: SAMPLE SD\n1: POPULATION SD\n NO OTHER VALUES ARE ACCEPTED");
+    }
+
+    /**
+     * Calculates the best fit line to 2 columns, where one is the independet variable, and the other one the
+     * dependent. Rows count if they have a value in both columns, like in StatisticalTable.linearRegression
+     *
+     * @param xColumn the column of independent values
+     * @param yColumn the column of dependent values
+     * @return array with 2 elements a, b to the equation Y = a + b * X
+     * @throws IOException if columns doesn't have same number of values, or are empty
+     * @throws Exception if any column numbers given is greater than the max number of column for a row
+     */
+    public double[] linearRegression(int xColumn, int yColumn) throws IOException, Exception {
+
+        if ((yColumn > this.columns) || (xColumn > this.columns)) {
+
+            throw new Exception("COLUMN NUMBERS SHOULD NOT BE GREATER THAN MAX NUMBER OF COLUMNS ON EACH ROW OF THE TABLE");
+        }
+        else if (yColumn < 1 || xColumn < 1) {
+
+            throw new Exception("COLUMN NUMBERS SHOÚLD NOT BE LESS THAN 1");
+        }
+
+        int x = xColumn - 1;
+        int y = yColumn - 1;
+        double numberOfElements = this.fullRows;
+        double meanOfX = this.columnMeans[x];
+        double meanOfY = this.columnMeans[y];
+        double coMomentOfXY = this.coMoments[x][y];
+        double coMomentOfXX = this.coMoments[x][x];
+
+        int headEnd = this.isInHead ? this.nextColumn : this.columns;
+        int currentRowEnd = this.isInHead ? 0 : this.nextColumn;
+        double[][] partialRows = {this.head, this.currentRow}; // rows that aren't full might still have both values
+        int[] partialRowStarts = {this.firstColumn == 0 ? headEnd : this.firstColumn, 0};
+        int[] partialRowEnds = {headEnd, currentRowEnd};
+
+        for (int i = 0; i < partialRows.length; i++) {
+
+            if (x >= partialRowStarts[i] && y >= partialRowStarts[i] && x < partialRowEnds[i] && y < partialRowEnds[i]) {
+
+                numberOfElements++; // added like addRow(double[]) adds a row, for these two columns only
+                double distanceOfX = partialRows[i][x] - meanOfX;
+                double distanceOfY = partialRows[i][y] - meanOfY;
+                meanOfX += distanceOfX / numberOfElements;
+                meanOfY += distanceOfY / numberOfElements;
+                coMomentOfXY += distanceOfX * (partialRows[i][y] - meanOfY);
+                coMomentOfXX += distanceOfX * (partialRows[i][x] - meanOfX);
+            }
+        }
+
+        if (numberOfElements == 0) {
+
+            throw new IOException("CHECK FILE, COLUMNS MIGHT NOT HAVE EQUAL AMOUNT OF VALUES, OR MIGHT EVEN BE EMPTY");
+        }
+
+        double b = coMomentOfXY / coMomentOfXX;
+        double a = meanOfY - b * meanOfX;
+
+        double[] constants = new double[2];
+        constants[0] = a;
+        constants[1] = b;
+        return constants;
+    }
+}
@@ -1,8 +1,9 @@
 package analogdv;
 import java.util.ArrayList;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Collections;
+import java.util.stream.DoubleStream;
 import java.io.*;
 
 public class StatisticalTable extends Table {
@@ -10,7 +11,23 @@ public class StatisticalTable extends Table {
     /* FIELDS */
 
     private File file; // file that houses the table, can also be seen as a file-rep of the table
-    private ArrayList<Double> dataPoints; // needed for calculations
+    private List<Double> dataPoints; // needed for calculations
+    private TableJournal journal; // log of changes that are not yet printed out to file, null until the file is read
+    private boolean loaded; // true once the elements of the file have been read
+    private int unloadedSize; // number of elements in the file, counted without reading them, -1 until counted
+    private long followOffset; // bytes of the file that have been read, rows after them were appended by someone else
+    private int followLines; // lines of the file that have been read
+    private long followLength; // length of the file when it was read
+    private long followModified; // modification time of the file when it was read, unchanged if it still is
+    private long followChecksum; // sample checksum of the bytes that have been read, see TableFiles.sampleChecksum
+    private ValueIndex<Double> numericIndex; // where each value is, null unless asked for with useIndex()
+    private HashMap<Integer, ColumnIndex> columnIndexes; // column -> its rows sorted by value, see useColumnIndex(int)
+    private File summaryFile; // statistics of the table file, so that they can be answered without reading it
+    private StatisticalSummary storedSummary; // statistics read from summaryFile, null if not read or not up to date
+    private String storedStamp; // stamp of the table file that storedSummary belongs to
+    private long stampLength; // length of the table file when its checksum was calculated, -1 if it hasn't been
+    private long stampModified; // last modification time of the table file when its checksum was calculated
+    private long stampChecksum; // checksum of the table file, calculated again when its length or time changes
 
     /* INNER CLASS */
 
@@ -51,9 +68,11 @@ public class StatisticalTable extends Table {
         super(columns);
         this.file = new File(path);
         this.file.createNewFile(); // if file does not exist prior to execution
-        this.hasContent(this.file);
-        this.printTable(this.file); // prints out empty table, or table with the elements in the file
-        this.dataPoints = new ArrayList<>();
+        this.dataPoints = new ChunkedList<Double>(); // has to exist before file is read
+        this.columnIndexes = new HashMap<Integer, ColumnIndex>();
+        this.summaryFile = new File(path + ".summary");
+        this.unloadedSize = -1; // the file is read when its elements are first needed
+        this.stampLength = -1;
     }
 
     /* METHODS - internal */
@@ -65,177 +84,462 @@ public class StatisticalTable extends Table {
      * @param element new string element
      * @throws Exception if element can't be converted to double
      */
-    private void addDataPoint(ArrayList<Double> dataList, String element) throws Exception {
+    private void addDataPoint(List<Double> dataList, String element) throws Exception {
 
-        double value = Double.parseDouble(element);
+        double value = NumberCodec.parse(element);
         dataList.add(value);
     }
 
     /**
-     * Adds multiple elements to numerical form to the dataPoint list
+     * also Adds multiple elements to numerical form to the dataPoint list, but it is used while reading file.
+     * The elements are parsed where they are in the line
      *
      * @param dataList list of numerical objects (doubles)
-     * @param elements new list of string elements
-     * @throws Exception if any element can't be converted to double
-     */
-    private void addDataPoints(ArrayList<Double> dataList, ArrayList<String> elements) throws Exception {
-
-        for (String element : elements) {
-
-            this.addDataPoint(dataList, element);
-        }
-    }
-
-    /**
-     * also Adds multiple elements to numerical form to the dataPoint list, but it is used while reading file
-     *
-     * @param dataList list of numerical objects (doubles)
-     * @param elements new list of string elements
+     * @param line row that was read last by the reader
+     * @param reader reader that knows where the elements of the row are
      * @throws IOException if any element read from file can't be converted to double
      */
-     private void addDataPoints(ArrayList<Double> dataList, ArrayList<String> elements, int lineNumber) throws IOException {
+     private void addDataPoints(List<Double> dataList, String line, TableReader reader) throws IOException {
 
         int cellNumber = 0;
+        int lineNumber = reader.getLineNumber();
         try {
 
-            for (String element : elements) {
+            for (int i = 0; i < reader.getNumberOfElements(); i++) {
 
                 cellNumber++;
-                this.addDataPoint(dataList, element);
+                dataList.add(NumberCodec.parse(line, reader.getElementStart(i), reader.getElementEnd(i)));
             }
         }
         catch(Exception e) {
 
             String message = "CANNOT CONVERT ELEMENT IN CELL" + cellNumber + " TO DOUBLE";
-            String errorMessage = this.generateErrorMessage(message, lineNumber, this.file.toString());
+            String errorMessage = generateErrorMessage(message, lineNumber, this.file.toString());
             throw new IOException(errorMessage);
         }
      }
 
     /**
-     * Reads file and extracts all elements, if there are any and if it is properly formatted
+     * Reads file and adds all its elements to the table, if there are any and if it is properly formatted
      *
      * @param f a text-file which represents a table
-     * @throws Exception if something happens while formatting table
      * @throws IOException if something happens while reading from file or if file is not formatted properly
      */
-    private void hasContent(File f) throws IOException, Exception {
+    private void hasContent(File f) throws IOException {
+
+        if (f.length() > 0) {
+
+            this.extract(new TableReader(f.getPath()));
+        }
+    }
+
+    /**
+     * Adds the elements of the file to the table, and to the dataPoint list, one row at a time as they are read,
+     * so only one row is held on top of the table. Remembers how much of the file has been read. Nothing is
+     * logged, since the elements are already in the file
+     *
+     * @param reader reader of the file, it is closed afterwards
+     * @return number of elements that were added
+     * @throws IOException if something happens while reading from file or if file is not formatted properly
+     */
+    private int extract(TableReader reader) throws IOException {
 
         String line;
-        boolean result = false;
-        BufferedReader br = new BufferedReader(new FileReader(f));
+        int count = 0;
+        int firstCell = super.size();
+        OperationTimer timer = super.startTimer(TableMetrics.PARSE);
+        long firstByte = reader.getBytesRead();
 
-        while ((line = br.readLine()) != null) { // result remains false until line doesn't hold an empty value
+        try {
 
-             result = true;
-        }
+            while ((line = reader.readRowLine()) != null) {
+
+                ArrayList<Double> values = new ArrayList<Double>(reader.getNumberOfElements());
+                this.addDataPoints(values, line, reader); // adds to numerical list for calculations
+                ArrayList<String> row = new ArrayList<String>(reader.getNumberOfElements());
+                for (int i = 0; i < reader.getNumberOfElements(); i++) {
 
-        br.close();
+                    row.add(line.substring(reader.getElementStart(i), reader.getElementEnd(i)));
+                }
 
-        if (result) {
+                TableEditor editor = new TableEditor();
+                editor.add(row);
+                this.apply(editor, values);
+                count += row.size();
+            }
+        }
+        catch (Exception e) {
 
-            this.extract(f);
+            this.removeAdded(firstCell, count); // the table is left as it was
+            throw e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
         }
+        finally {
+
+            reader.close();
+        }
+
+        this.followOffset = reader.getOffset();
+        this.followLines = reader.getCompleteLines();
+        this.followLength = reader.getBytesRead();
+        this.rememberFollowed();
+        timer.stop(count, reader.getBytesRead() - firstByte, 0);
+        return count;
     }
 
     /**
-     * Extracts all the elements of the table
+     * Removes elements that were added while reading a file that turned out not to be readable
      *
-     * @param f a text-file which represents a table
-     * @throws Exception if something happens while formatting table
-     * @throws IOException if something happens while reading from file or if file is not formatted properly
+     * @param firstCell first element that was added
+     * @param count number of elements that were added
      */
-    private void extract(File f) throws IOException, Exception {
+    private void removeAdded(int firstCell, int count) {
 
-        String line;
-        BufferedReader br = new BufferedReader(new FileReader(f));
-        Pattern lineFormat = Pattern.compile("(\\[\\s\\w+\\s+\\])+");
-        Pattern barFormat = Pattern.compile("\\-+");
-        Matcher lineMatcher;
-        Matcher barMatcher;
-        int lineCounter = 0;
+        if (count > 0) {
 
-        while ((line = br.readLine()) != null) {
+            TableEditor editor = new TableEditor();
+            editor.removeRange(firstCell, firstCell + count);
+            try {
 
-            lineCounter++;
+                this.apply(editor); // not logged, they were never in the journal
+            }
+            catch (Exception e) {
 
-            if (lineCounter % 2 != 0) {
+                // removing elements that are there can't fail
+            }
+        }
+    }
 
-                barMatcher = barFormat.matcher(line);
+    /**
+     * Converts all elements that queued changes add to the table, before anything is changed, so that a
+     * batch with a non-numerical element leaves the table untouched
+     *
+     * @param editor queued changes
+     * @return the new elements, as numbers
+     * @throws Exception if any element can't be converted to double
+     */
+    private ArrayList<Double> parseDataPoints(TableEditor editor) throws Exception {
+
+        ArrayList<Double> newDataPoints = new ArrayList<Double>();
+        for (String[] record : editor.getRecords()) {
 
-                if (!barMatcher.matches()) {
+            if (record[0].charAt(0) == TableEditor.ADD || record[0].charAt(0) == TableEditor.ADD_LIST) {
 
-                   String errorMessage = this.generateErrorMessage("LINE SHOULD BE A DIVIDING BAR", lineCounter, this.file.toString());
-                   throw new IOException(errorMessage);
+                for (int i = 1; i < record.length; i++) {
+
+                    this.addDataPoint(newDataPoints, record[i]);
                 }
             }
-            else {
+        }
 
-                lineMatcher = lineFormat.matcher(line);
+        return newDataPoints;
+    }
 
-                if (lineMatcher.matches()) {
+    /**
+     * Applies queued changes to the table and to the dataPoint list
+     *
+     * @param editor queued changes
+     * @throws Exception if any element can't be converted to double, or if something happens while formatting table
+     */
+    private void apply(TableEditor editor) throws Exception {
 
-                    ArrayList<String> elements = this.splitByElement(line);
-                    this.addDataPoints(this.dataPoints, elements, lineCounter); // adds to numerical list for calculations
-                    super.add(elements);
-                }
-                else {
+        this.apply(editor, this.parseDataPoints(editor));
+    }
 
-                    String errorMessage = this.generateErrorMessage("FORMATTING ERROR", lineCounter, this.file.toString());
-                    throw new IOException(errorMessage);
-                }
+    /**
+     * Applies queued changes to the table and to the dataPoint list, with the new elements already converted
+     *
+     * @param editor queued changes
+     * @param newDataPoints the elements added by the changes, as numbers and in the same order
+     * @throws Exception if something happens while formatting table
+     */
+    private void apply(TableEditor editor, ArrayList<Double> newDataPoints) throws Exception {
+
+        super.commit(editor);
+
+        int next = 0;
+        for (String[] record : editor.getRecords()) {
+
+            switch (record[0].charAt(0)) {
+
+                case TableEditor.ADD:
+                case TableEditor.ADD_LIST:
+                    for (int i = 1; i < record.length; i++) {
+
+                        this.dataPoints.add(newDataPoints.get(next));
+                        if (this.numericIndex != null) {
+
+                            this.numericIndex.add(newDataPoints.get(next), this.dataPoints.size() - 1);
+                        }
+                        for (ColumnIndex columnIndex : this.columnIndexes.values()) {
+
+                            columnIndex.add(newDataPoints.get(next), this.dataPoints.size() - 1, super.getColumns());
+                        }
+                        next++;
+                    }
+                    break;
+                case TableEditor.REMOVE:
+                    this.dataPoints.remove(Integer.parseInt(record[1]));
+                    this.invalidateIndex();
+                    break;
+                case TableEditor.REMOVE_RANGE:
+                    this.dataPoints.subList(Integer.parseInt(record[1]), Integer.parseInt(record[2])).clear(); // removeRange of the list
+                    this.invalidateIndex();
+                    break;
+                case TableEditor.SET_COLUMNS:
+                    for (ColumnIndex columnIndex : this.columnIndexes.values()) {
+
+                        columnIndex.invalidate(); // every cell is on another row now
+                    }
+                    break;
+                case TableEditor.CLEAR:
+                    this.dataPoints.clear();
+                    this.invalidateIndex();
+                    break;
             }
         }
+    }
 
-        br.close();
+    /**
+     * Marks the numerical index and the column indexes as stale, if there are any, they are built again when
+     * they are used next time
+     */
+    private void invalidateIndex() {
+
+        if (this.numericIndex != null) {
+
+            this.numericIndex.invalidate();
+        }
+        for (ColumnIndex columnIndex : this.columnIndexes.values()) {
+
+            columnIndex.invalidate();
+        }
     }
 
     /**
-     * Generates error messages
+     * Tests if a column number is viable
      *
-     * @param message is what implementer wants to convey to user
-     * @param line is where in the text-file it was found
-     * @param file is the path to the file the error was found in
-     * @return the full error message
+     * @param column column number, counting from 1
+     * @throws Exception if column is greater than the max number of columns in a row, or less than 1
      */
-    private String generateErrorMessage(String message, int line, String file) {
+    private void testColumn(int column) throws Exception {
 
-        StringBuilder errorMessage = new StringBuilder();
-        errorMessage.append("\nLine: " + line);
-        errorMessage.append("\nFile: " + file);
-        errorMessage.append("\nMessage: " + message);
+        if (column > super.getColumns()) {
 
-        return errorMessage.toString();
+            throw new Exception("COLUMN NUMBERS SHOULD NOT BE GREATER THAN MAX NUMBER OF COLUMNS ON EACH ROW OF THE TABLE");
+        }
+        else if (column < 1) {
+
+            throw new Exception("COLUMN NUMBERS SHOÚLD NOT BE LESS THAN 1");
+        }
     }
 
     /**
-     * Splits string read from file into list of elements to be added to table
+     * Finds the rows whose value in a column is within a range, with the index of the column if there is one
      *
-     * @param line line of text
-     * @return list of elements extracted from file
+     * @param column column number, counting from 1
+     * @param from smallest value of the range, inclusive
+     * @param to largest value of the range, inclusive
+     * @return the rows, in increasing order of row if there is no index, otherwise in increasing order of value
      */
-    private ArrayList<String> splitByElement(String line) {
+    private ArrayList<Integer> getRowsBetween(int column, double from, double to) {
+
+        ArrayList<Integer> rows = new ArrayList<Integer>();
+        int columns = super.getColumns();
+        ColumnIndex columnIndex = this.columnIndexes.get(column);
+
+        if (columnIndex != null) {
+
+            for (ArrayList<Integer> rowsOfValue : columnIndex.rowsBetween(this.dataPoints, columns, from, to)) {
+
+                rows.addAll(rowsOfValue);
+            }
+            return rows;
+        }
+
+        int row = 0;
+        for (int cellNumber = column - 1; cellNumber < this.dataPoints.size(); cellNumber += columns) {
+
+            double value = this.dataPoints.get(cellNumber);
+            if (value >= from && value <= to) {
 
-        ArrayList<String> elementList = new ArrayList<String>();
-        String line2 = line.substring(2, line.length() - 1).replaceAll("\\s+", ""); // removes 1st and last bracket and whitespaces
-        String[] elementArray = line2.split("\\]\\["); // removes all brackets that are left
-        Collections.addAll(elementList, elementArray);
+                rows.add(row);
+            }
+            row++;
+        }
 
-        return elementList;
+        return rows;
     }
 
     /**
-     * Prints table out to file
+     * Prints table out to file, all changes in the journal become part of the file
      *
-     * @param f text-file that table is going to get printed to
-     * @throws IOException if something happens while reading from file
+     * @throws IOException if something happens while writing to file
      */
-    private void printTable(File f) throws IOException {
+    private void printTable() throws IOException {
 
         String table = this.toString();
-        BufferedWriter bw = new BufferedWriter(new FileWriter(f)); // writing mechanism to file
-        bw.write(table);
-        bw.close();
+        OperationTimer timer = super.startTimer(TableMetrics.PERSIST);
+        this.followLength = this.journal.compact(table);
+        this.storeSummary();
+        timer.stop(this.dataPoints.size(), 0, this.followLength);
+        this.followOffset = TableReader.endOfCompleteLines(table, this.followLength);
+        this.followLines = TableReader.countCompleteLines(table);
+        this.rememberFollowed();
+    }
+
+    /**
+     * Remembers the modification time of the file and a checksum of the part that has been read, so that
+     * refresh() can tell rows that were appended from a file that was rewritten
+     *
+     * @throws IOException if something happens while reading from file
+     */
+    private void rememberFollowed() throws IOException {
+
+        this.followModified = this.file.lastModified();
+        this.followChecksum = TableFiles.sampleChecksum(this.file, this.followOffset);
+    }
+
+    /**
+     * Makes a stamp of the table file, which changes when the content of the file does. A summary file is only
+     * used if its stamp is the stamp of the table file, and the number of columns is the same. The checksum is
+     * the one the journal knows after printing the table out to file, otherwise the file is read to calculate
+     * it, but only the first time and again after the length or the modification time of the file has changed
+     *
+     * @return number of columns, length of the file and checksum of its content
+     * @throws IOException if something happens while reading from file
+     */
+    private String getStamp() throws IOException {
+
+        long length = this.file.length(); // read before the checksum, so a later change is noticed next time
+        long checksum;
+        if (this.journal != null) {
+
+            checksum = this.journal.getSnapshotChecksum();
+        }
+        else {
+
+            long modified = this.file.lastModified();
+            if (length != this.stampLength || modified != this.stampModified) {
+
+                this.stampChecksum = TableJournal.checksum(this.file);
+                this.stampLength = length;
+                this.stampModified = modified;
+            }
+            checksum = this.stampChecksum;
+        }
+
+        return super.getColumns() + ":" + length + ":" + checksum;
+    }
+
+    /**
+     * Calculates the statistics of all values in the dataPoint list
+     *
+     * @return the statistics
+     * @throws IOException if the number of columns isn't viable
+     */
+    private StatisticalSummary summarizeDataPoints() throws IOException {
+
+        StatisticalSummary summary;
+        try {
+
+            summary = new StatisticalSummary(super.getColumns());
+        }
+        catch (Exception e) {
+
+            throw new IOException(e.getMessage(), e);
+        }
+
+        for (Double dataPoint : this.dataPoints) {
+
+            summary.add(dataPoint.doubleValue());
+        }
+
+        return summary;
+    }
+
+    /**
+     * Writes the statistics of all values to the summary file, stamped with the table file as it is now
+     *
+     * @throws IOException if something happens while writing to file
+     */
+    private void storeSummary() throws IOException {
+
+        this.summarizeDataPoints().store(this.summaryFile, this.getStamp());
+    }
+
+    /**
+     * Lets go of the elements that have been read, so that the file is read again the next time they are
+     * needed. Used after the file has been changed without the table
+     *
+     * @throws IOException if something happens while formatting table
+     */
+    private void unload() throws IOException {
+
+        if (this.loaded) {
+
+            TableEditor editor = new TableEditor();
+            editor.clear();
+            try {
+
+                this.apply(editor); // the file already has the elements, so nothing is logged
+            }
+            catch (Exception e) {
+
+                throw new IOException(e.getMessage(), e);
+            }
+            this.loaded = false;
+            this.journal = null;
+        }
+
+        this.unloadedSize = -1;
+        this.storedSummary = null;
+        this.storedStamp = null;
+    }
+
+    /**
+     * Fetches the statistics of the table from the summary file, so that they can be answered without reading
+     * the table. Only used while the table hasn't been read, and only if the table file has no changes in its
+     * journal and hasn't been written to since the summary was
+     *
+     * @return the statistics, null if they have to be calculated from the values
+     */
+    private StatisticalSummary getStoredSummary() {
+
+        if (this.loaded || TableJournal.hasRecords(this.file)) {
+
+            return null;
+        }
+
+        String stamp;
+        try {
+
+            stamp = this.getStamp();
+        }
+        catch (IOException e) {
+
+            return null; // the statistics are calculated from the file instead, which reports the problem
+        }
+
+        if (!stamp.equals(this.storedStamp)) {
+
+            this.storedSummary = StatisticalSummary.load(this.summaryFile, stamp);
+            this.storedStamp = stamp;
+        }
+
+        return this.storedSummary;
+    }
+
+    /**
+     * Prints table out to file if the journal has grown enough
+     *
+     * @throws IOException if something happens while writing to file
+     */
+    private void compactIfDue() throws IOException {
+
+        if (this.journal.isCompactionDue()) {
+
+            this.printTable();
+        }
     }
 
     /**
@@ -249,7 +553,7 @@ public class StatisticalTable extends Table {
      * @throws Exception if any column numbers given is greater than the max number of column for a row, or if numbers are negative
      * @return list of points representations of the values
      */
-    private ArrayList<CartesianPoint> getPoints(ArrayList<Double> dataList, int xColumn, int yColumn, int columnLimit) throws IOException, Exception {
+    private ArrayList<CartesianPoint> getPoints(List<Double> dataList, int xColumn, int yColumn, int columnLimit) throws IOException, Exception {
 
         if ((yColumn > columnLimit) || (xColumn > columnLimit)) {
 
@@ -281,6 +585,88 @@ public class StatisticalTable extends Table {
         return points;
     }
 
+    /**
+     * Reads the elements of the file, and the changes in its journal, the first time they are needed. Until
+     * then the table hasn't read or written anything, so opening a table to look at its size costs next to nothing
+     *
+     * @throws IOException if something happens while reading from file or if file is not formatted properly
+     */
+    protected void materialize() throws IOException {
+
+        if (this.loaded || this.file == null) { // file is null while Table sets itself up
+
+            return;
+        }
+
+        TableJournal journal = new TableJournal(this.file);
+        this.loaded = true; // rows are added while they are read, so the table shouldn't read the file again meanwhile
+        try {
+
+            this.hasContent(this.file);
+            TableEditor changes = journal.replay(); // changes that didn't make it into the file yet
+            this.apply(changes);
+            this.journal = journal;
+        }
+        catch (Exception e) {
+
+            this.removeAdded(0, super.size()); // the journal couldn't be applied, the file is read again next time
+            this.loaded = false;
+            throw e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Applies queued changes to the table and logs all of them with one write to the journal
+     *
+     * @param editor queued changes
+     * @throws Exception if any element can't be converted to double, or if something happens while formatting table
+     * @throws IOException if something happens while writing to file
+     */
+    protected void commit(TableEditor editor) throws IOException, Exception {
+
+        this.commit(editor, this.parseDataPoints(editor));
+    }
+
+    /**
+     * Applies queued changes, whose new elements are already converted to numbers, and logs them
+     *
+     * @param editor queued changes
+     * @param newDataPoints the elements added by the changes, as numbers and in the same order
+     * @throws Exception if something happens while formatting table
+     * @throws IOException if something happens while writing to file
+     */
+    private void commit(TableEditor editor, ArrayList<Double> newDataPoints) throws IOException, Exception {
+
+        this.materialize();
+        this.apply(editor, newDataPoints);
+        OperationTimer timer = super.startTimer(TableMetrics.JOURNAL);
+        long bytesWritten = this.journal.log(editor);
+        timer.stop(editor.size(), 0, bytesWritten);
+        this.compactIfDue();
+    }
+
+    /**
+     * Adds numbers to the table, they are formatted once for the table and never parsed back
+     *
+     * @param values the numbers
+     * @throws Exception if something happens while formatting table
+     * @throws IOException if something happens while writing to file
+     */
+    private void addValues(double[] values) throws IOException, Exception {
+
+        ArrayList<String> elements = new ArrayList<String>(values.length);
+        ArrayList<Double> newDataPoints = new ArrayList<Double>(values.length);
+        for (double value : values) {
+
+            elements.add(NumberCodec.format(value));
+            newDataPoints.add(value);
+        }
+
+        TableEditor editor = new TableEditor();
+        editor.add(elements);
+        this.commit(editor, newDataPoints);
+    }
+
     /* METHODS - interface */
 
     /**
@@ -292,9 +678,9 @@ public class StatisticalTable extends Table {
      */
     public void add(String element) throws IOException, Exception {
 
-        this.addDataPoint(this.dataPoints, element);
-        super.add(element);
-        this.printTable(this.file);
+        TableEditor editor = new TableEditor();
+        editor.add(element);
+        this.commit(editor);
     }
 
     /**
@@ -306,9 +692,63 @@ public class StatisticalTable extends Table {
      */
     public void add(ArrayList<String> elements) throws IOException, Exception {
 
-        this.addDataPoints(this.dataPoints, elements);
-        super.add(elements);
-        this.printTable(this.file);
+        TableEditor editor = new TableEditor();
+        editor.add(elements);
+        this.commit(editor);
+    }
+
+    /**
+     * Lets user add numbers to the table without turning them into strings first
+     *
+     * @param values new numbers to be insterted to table
+     * @throws Exception if something happens while formatting table
+     * @throws IOException if something happens while writing to file
+     */
+    public void add(double... values) throws IOException, Exception {
+
+        this.addValues(values);
+    }
+
+    /**
+     * Lets user add a stream of numbers to table, all of them are added with one change
+     *
+     * @param values new numbers to be insterted to table
+     * @throws Exception if something happens while formatting table
+     * @throws IOException if something happens while writing to file
+     */
+    public void add(DoubleStream values) throws IOException, Exception {
+
+        this.addValues(values.toArray());
+    }
+
+    /**
+     * Lets user add whole rows of numbers to table, all of them are added with one change
+     *
+     * @param rows new rows, each one should have as many numbers as there are columns
+     * @throws Exception if a row doesn't have one number for each column, if the last row of the table
+     * isn't full, or if something happens while formatting table
+     * @throws IOException if something happens while writing to file
+     */
+    public void addRows(double[][] rows) throws IOException, Exception {
+
+        this.materialize();
+        int columns = super.getColumns();
+        if (this.size() % columns != 0) {
+
+            throw new Exception("LAST ROW OF THE TABLE SHOULD BE FULL BEFORE ROWS ARE ADDED");
+        }
+
+        double[] values = new double[rows.length * columns];
+        for (int i = 0; i < rows.length; i++) {
+
+            if (rows[i].length != columns) {
+
+                throw new Exception("EACH ROW SHOULD HAVE ONE VALUE FOR EACH COLUMN");
+            }
+            System.arraycopy(rows[i], 0, values, i * columns, columns);
+        }
+
+        this.addValues(values);
     }
 
     /**
@@ -320,9 +760,9 @@ public class StatisticalTable extends Table {
      */
     public void remove(int cellNumber) throws IOException, Exception {
 
-        super.remove(cellNumber);
-        this.dataPoints.remove(cellNumber);
-        this.printTable(this.file);
+        TableEditor editor = new TableEditor();
+        editor.remove(cellNumber);
+        this.commit(editor);
      }
 
     /**
@@ -333,9 +773,289 @@ public class StatisticalTable extends Table {
      */
     public void clear() throws IOException, Exception {
 
-        this.dataPoints.clear();
-        super.clear();
-        this.printTable(this.file);
+        TableEditor editor = new TableEditor();
+        editor.clear();
+        this.commit(editor);
+    }
+
+    /**
+     * Adds the elements of another table file to this table, without loading either table. The other file is
+     * streamed into this one, whose rows are copied as they are unless the new elements need wider cells, so
+     * memory use doesn't grow with the size of the files. The statistics of the new values are calculated while
+     * they are checked, and merged with the ones of this table into the summary file, so statistics are still
+     * answered without reading the table. Like merge(Table), nothing is added if both files have the same content
+     *
+     * @param path where the other table file is
+     * @return number of elements that were added
+     * @throws IOException if something happens while reading from or writing to file, if a file is not formatted
+     * properly, or if an element of the other file can't be converted to double
+     * @throws Exception if the other table file has changes that aren't printed out to it yet
+     */
+    public int mergeFile(String path) throws IOException, Exception {
+
+        File other = new File(path);
+        if (TableJournal.hasRecords(other)) {
+
+            throw new Exception("OTHER TABLE HAS CHANGES THAT ARE NOT PRINTED OUT TO FILE, COMPACT IT BEFORE MERGING");
+        }
+
+        this.flush(); // the elements are added to the file, so it should have every change
+        StatisticalSummary summary = this.loaded ? this.summarizeDataPoints() : this.getStoredSummary();
+        if (summary == null) {
+
+            summary = StatisticalSummary.read(this.file.getPath(), super.getColumns());
+        }
+
+        StatisticalSummary addedSummary = new StatisticalSummary(super.getColumns(), summary.getCount());
+        TableFileMerger.RowVisitor visitor = (line, reader) -> { // nothing is written if a value isn't a number
+
+            for (int i = 0; i < reader.getNumberOfElements(); i++) {
+
+                try {
+
+                    addedSummary.add(NumberCodec.parse(line, reader.getElementStart(i), reader.getElementEnd(i)));
+                }
+                catch (NumberFormatException e) {
+
+                    String message = "CANNOT CONVERT ELEMENT IN CELL" + (i + 1) + " TO DOUBLE";
+                    throw new IOException(generateErrorMessage(message, reader.getLineNumber(), path));
+                }
+            }
+        };
+
+        OperationTimer timer = super.startTimer(TableMetrics.PERSIST);
+        TableFileMerger merger = new TableFileMerger(this.file, other, super.getColumns(), visitor);
+        long added = merger.merge();
+        timer.stop(added, merger.getBytesRead(), merger.getBytesWritten());
+
+        if (added > 0) {
+
+            this.unload();
+            summary.merge(addedSummary); // combined without going through the values again
+            try {
+
+                summary.store(this.summaryFile, this.getStamp());
+            }
+            catch (IOException e) {
+
+                // the summary is only a shortcut, the statistics are calculated from the file instead
+            }
+        }
+
+        return (int) added;
+    }
+
+    /**
+     * Lets user change number of columns on each row
+     *
+     * @param columns new maximum number of columns in a row
+     * @throws Exception if columns < 1
+     * @throws IOException if something happens while writing to file
+     */
+    public void setColumns(int columns) throws IOException, Exception {
+
+        TableEditor editor = new TableEditor();
+        editor.setColumns(columns);
+        this.commit(editor);
+    }
+
+    /**
+     * Lets user keep an index of where each value is in the table, both as text (see Table.useIndex()) and
+     * as a number (for find(double))
+     */
+    public void useIndex() {
+
+        super.useIndex();
+        if (this.numericIndex == null) {
+
+            this.numericIndex = new ValueIndex<Double>(value -> value + 0.0); // + 0.0 turns -0.0 into 0.0, they are equal
+        }
+    }
+
+    /**
+     * Lets user keep the elements outside of the Java heap, see Table.useOffHeapStorage(). The numerical form
+     * of the elements is moved off the heap too, so a large table keeps neither strings nor boxed numbers there
+     */
+    public void useOffHeapStorage() {
+
+        super.useOffHeapStorage(); // reads the file first, if it hasn't been read
+        this.dataPoints = new OffHeapDoubleList(this.dataPoints);
+    }
+
+    /**
+     * Lets user keep the rows of the table sorted by their value in a column, so that countWhere and
+     * summarizeWhere find the rows within a range without going through the whole column. The index is kept
+     * up to date when elements are added, and is built again on the next query after elements have been
+     * removed or the number of columns has changed
+     *
+     * @param column column number, counting from 1
+     * @throws Exception if column is greater than the max number of columns in a row, or less than 1
+     */
+    public void useColumnIndex(int column) throws Exception {
+
+        this.testColumn(column);
+        this.columnIndexes.putIfAbsent(column, new ColumnIndex(column - 1));
+    }
+
+    /**
+     * Counts the values of a column that are within a range, e.g. countWhere(2, Math.nextUp(10), Double.POSITIVE_INFINITY)
+     * counts the values of column 2 that are above 10
+     *
+     * @param column column number, counting from 1
+     * @param from smallest value of the range, inclusive
+     * @param to largest value of the range, inclusive
+     * @return number of values within the range
+     * @throws IOException if something happens while reading from file
+     * @throws Exception if column is greater than the max number of columns in a row, or less than 1
+     */
+    public int countWhere(int column, double from, double to) throws IOException, Exception {
+
+        this.materialize();
+        this.testColumn(column);
+        OperationTimer timer = super.startTimer(TableMetrics.STATISTIC + "countWhere");
+        int count = this.getRowsBetween(column, from, to).size();
+        timer.stop(count, 0, 0);
+
+        return count;
+    }
+
+    /**
+     * Calculates the statistics of a column, for the rows whose value in another column is within a range,
+     * e.g. summarizeWhere(3, 1, a, b).getMeanValue() is the mean of column 3 for rows where column 1 is between
+     * a and b. Rows without a value in the column (the last row might not be full) are left out
+     *
+     * @param column column number of the values, counting from 1
+     * @param filterColumn column number of the values that should be within the range, counting from 1
+     * @param from smallest value of the range, inclusive
+     * @param to largest value of the range, inclusive
+     * @return statistics of the values, as a table with 1 column
+     * @throws IOException if something happens while reading from file
+     * @throws Exception if a column is greater than the max number of columns in a row, or less than 1
+     */
+    public StatisticalSummary summarizeWhere(int column, int filterColumn, double from, double to) throws IOException, Exception {
+
+        this.materialize();
+        this.testColumn(column);
+        this.testColumn(filterColumn);
+        OperationTimer timer = super.startTimer(TableMetrics.STATISTIC + "summarizeWhere");
+
+        StatisticalSummary summary = new StatisticalSummary(1);
+        int columns = super.getColumns();
+        for (int row : this.getRowsBetween(filterColumn, from, to)) {
+
+            int cellNumber = row * columns + column - 1;
+            if (cellNumber < this.dataPoints.size()) {
+
+                summary.add(this.dataPoints.get(cellNumber));
+            }
+        }
+
+        timer.stop(summary.getCount(), 0, 0);
+        return summary;
+    }
+
+    /**
+     * Finds where in the table every occurrence of a numerical value is, "2", "2.0" and "2e0" are all found
+     * when looking for 2
+     *
+     * @param value value to look for
+     * @return cell numbers of the value in increasing order, empty if it isn't in the table
+     * @throws IOException if something happens while reading from file
+     */
+    public ArrayList<Integer> find(double value) throws IOException {
+
+        this.materialize();
+        if (this.numericIndex != null) {
+
+            return new ArrayList<Integer>(this.numericIndex.positionsOf(this.dataPoints, value));
+        }
+
+        ArrayList<Integer> positions = new ArrayList<Integer>();
+        int cellNumber = 0;
+        for (Double dataPoint : this.dataPoints) {
+
+            if (dataPoint.doubleValue() == value || (Double.isNaN(value) && dataPoint.isNaN())) {
+
+                positions.add(cellNumber);
+            }
+            cellNumber++;
+        }
+
+        return positions;
+    }
+
+    /**
+     * Reads the rows that someone else has appended to the file since it was read, only the new part of the
+     * file is read and parsed. Meant for tables that follow a file another program writes to, see TableFollower.
+     * A table that has changes which are only in the journal can't be refreshed, since the file and the journal
+     * would no longer agree, and changes printed out to file overwrite rows that haven't been read yet.
+     * A file that is shorter than before, or whose first and last bytes before the appended rows have changed,
+     * has been rewritten rather than appended to
+     *
+     * @return number of elements that were added to the table
+     * @throws IOException if something happens while reading from file, if file is not formatted properly, or if
+     * it has been rewritten by someone else
+     * @throws Exception if the table has changes that aren't printed out to file yet
+     */
+    public int refresh() throws IOException, Exception {
+
+        this.materialize();
+        if (this.journal.hasPendingRecords()) {
+
+            throw new Exception("TABLE HAS CHANGES THAT ARE NOT PRINTED OUT TO FILE, COMPACT IT BEFORE READING APPENDED ROWS");
+        }
+
+        long length = this.file.length();
+        long modified = this.file.lastModified();
+        if (length == this.followLength && modified == this.followModified) { // the usual case, nothing to read
+
+            return 0;
+        }
+        else if (length < this.followLength || TableFiles.sampleChecksum(this.file, this.followOffset) != this.followChecksum) {
+
+            throw new IOException("FILE HAS BEEN REWRITTEN SINCE IT WAS READ, OPEN IT AGAIN");
+        }
+        else if (length == this.followLength) {
+
+            this.followModified = modified; // written to without changing what has been read
+            return 0;
+        }
+
+        TableReader reader = new TableReader(this.file.getPath(), this.followOffset, this.followLines);
+        int added = this.extract(reader); // already in the file, so nothing is logged
+        this.journal.snapshotChanged();
+
+        return added;
+    }
+
+    /**
+     * Prints all changes that are only in the journal out to the table file
+     *
+     * @throws IOException if something happens while writing to file
+     */
+    public void compact() throws IOException {
+
+        if (!this.loaded && !TableJournal.hasRecords(this.file)) { // file is already up to date
+
+            return;
+        }
+
+        this.materialize();
+        this.printTable();
+    }
+
+    /**
+     * Prints the changes that are only in the journal out to the table file, unlike compact() nothing is
+     * written if there are none
+     *
+     * @throws IOException if something happens while writing to file
+     */
+    public void flush() throws IOException {
+
+        if (this.loaded ? this.journal.hasPendingRecords() : TableJournal.hasRecords(this.file)) {
+
+            this.compact();
+        }
     }
 
     /**
@@ -349,30 +1069,83 @@ public class StatisticalTable extends Table {
     }
 
     /**
-     * Fetches size of the table, i.e number of elements the table contains
+     * Fetches the max number of columns on each row. If the file hasn't been read but its journal has changes,
+     * they are read first, since one of them may change the number of columns
+     *
+     * @return number of columns on each row
+     * @throws UncheckedIOException if something happens while reading from file
+     */
+    public int getColumns() {
+
+        if (!this.loaded && this.file != null && TableJournal.hasRecords(this.file)) { // file is null while Table sets itself up
+
+            try {
+
+                this.materialize();
+            }
+            catch (IOException e) {
+
+                throw new UncheckedIOException(e.getMessage(), e);
+            }
+        }
+
+        return super.getColumns();
+    }
+
+    /**
+     * Fetches size of the table, i.e number of elements the table contains. If the file hasn't been read and
+     * has no changes waiting in the journal, the elements are taken from the summary file, or counted in the
+     * table file instead of read
      *
      * @return number of elements
+     * @throws UncheckedIOException if something happens while reading from file
      */
     public int size() {
 
-        return super.size();
+        if (this.loaded || TableJournal.hasRecords(this.file)) {
+
+            return super.size();
+        }
+        else if (this.unloadedSize == -1) {
+
+            StatisticalSummary summary = this.getStoredSummary();
+            try {
+
+                this.unloadedSize = summary != null ? (int) summary.getCount() : TableReader.countElements(this.file.getPath());
+            }
+            catch (IOException e) {
+
+                throw new UncheckedIOException(e.getMessage(), e);
+            }
+        }
+
+        return this.unloadedSize;
     }
 
     /* METHODS - interface - statistical */
 
     /**
-     * Calculates the mean value of the entire table if table isn't empty
+     * Calculates the mean value of the entire table if table isn't empty. Answered from the summary file
+     * without reading the table, if the table hasn't been read yet and the summary file is up to date
      *
      * @return mean value
      * @throws Exception if user wants mean of empty table
      */
     public double getMeanValue() throws Exception {
 
+        StatisticalSummary summary = this.getStoredSummary();
+        if (summary != null) {
+
+            return summary.getMeanValue();
+        }
+
+        this.materialize();
         if (this.size() == 0) {
 
             throw new Exception("CANNOT PERFORM OPERATION ON EMPTY SET");
         }
 
+        OperationTimer timer = super.startTimer(TableMetrics.STATISTIC + "mean");
         double tableMean = 0;
         double sumOfElements = 0;
         for (Double value : this.dataPoints) {
@@ -382,6 +1155,7 @@ public class StatisticalTable extends Table {
 
         double numberOfElements = this.dataPoints.size();
         tableMean = sumOfElements / numberOfElements;
+        timer.stop(this.dataPoints.size(), 0, 0);
         return tableMean;
     }
 
@@ -393,11 +1167,13 @@ public class StatisticalTable extends Table {
      */
     public double getMedianValue() throws Exception {
 
+        this.materialize();
         if (this.size() == 0) {
 
             throw new Exception("CANNOT PERFORM OPERATION ON EMPTY SET");
         }
 
+        OperationTimer timer = super.startTimer(TableMetrics.STATISTIC + "median");
         double tableMedian = 0;
         ArrayList<Double> dataPointsCopy = new ArrayList<Double>(this.dataPoints);
         Collections.sort(dataPointsCopy);
@@ -413,6 +1189,7 @@ public class StatisticalTable extends Table {
             tableMedian = dataPointsCopy.get(numberOfElements / 2);
         }
 
+        timer.stop(numberOfElements, 0, 0);
         return tableMedian;
     }
 
@@ -424,11 +1201,13 @@ public class StatisticalTable extends Table {
      */
     public double getModeValue() throws Exception {
 
+        this.materialize();
         if (this.size() == 0) {
 
             throw new Exception("CANNOT PERFORM OPERATION ON EMPTY SET");
         }
 
+        OperationTimer timer = super.startTimer(TableMetrics.STATISTIC + "mode");
         double tableMode = Double.NaN; // for the case where there is no mode value
         int maxOccurrence = 0;
         for (int i = 0; i < this.dataPoints.size(); i++) {
@@ -449,11 +1228,13 @@ public class StatisticalTable extends Table {
             }
         }
 
+        timer.stop(this.dataPoints.size(), 0, 0);
         return tableMode;
     }
 
     /**
-     * Calculates the standard deviation of the entire table, if it isn't empty
+     * Calculates the standard deviation of the entire table, if it isn't empty. Answered from the summary file
+     * without reading the table, if the table hasn't been read yet and the summary file is up to date
      *
      * @param setting determines if it is a population or sample data that is being calculated
      * @return standard deviation of table
@@ -461,11 +1242,19 @@ public class StatisticalTable extends Table {
      */
     public double getStandardDeviation(int setting) throws Exception {
 
+        StatisticalSummary summary = this.getStoredSummary();
+        if (summary != null) {
+
+            return summary.getStandardDeviation(setting);
+        }
+
+        this.materialize();
         if (this.size() == 0) {
 
             throw new Exception("CANNOT PERFORM OPERATION ON EMPTY SET");
         }
 
+        OperationTimer timer = super.startTimer(TableMetrics.STATISTIC + "standardDeviation");
         double variance = 0;
         double meanValue = this.getMeanValue();
         double numberOfElements = this.dataPoints.size();
@@ -490,12 +1279,15 @@ public class StatisticalTable extends Table {
             throw new Exception("CHOOSE BETWEEN\n0: SAMPLE SD\n1: POPULATION SD\n NO OTHER VALUES ARE ACCEPTED");
         }
 
+        timer.stop(this.dataPoints.size(), 0, 0);
         return standDev;
      }
 
     /**
      * Calculates the best fit line to 2 columns of the table, where one is the independet variable, and the other one the dependent
      * Method uses the simple linear regression formula: https://www.youtube.com/watch?v=3g-e2aiRfbU&t=128s
+     * Answered from the summary file without reading the table, if the table hasn't been read yet and the
+     * summary file is up to date
      *
      * @param xColumn the column of independent values
      * @param yColumn the column of dependent values
@@ -505,6 +1297,14 @@ public class StatisticalTable extends Table {
      */
     public double[] linearRegression(int xColumn, int yColumn) throws IOException, Exception {
 
+        StatisticalSummary summary = this.getStoredSummary();
+        if (summary != null) {
+
+            return summary.linearRegression(xColumn, yColumn);
+        }
+
+        this.materialize();
+        OperationTimer timer = super.startTimer(TableMetrics.STATISTIC + "linearRegression");
         ArrayList<CartesianPoint> points = this.getPoints(this.dataPoints, xColumn, yColumn, super.getColumns());
         double numberOfElements = points.size();
         double sumOfY = 0;
@@ -533,25 +1333,7 @@ public class StatisticalTable extends Table {
 
         constants[0] = a;
         constants[1] = b;
+        timer.stop(points.size() * 2, 0, 0);
         return constants;
     }
-
-    /* METHODS - interface - data visualization */
-
-    // method makes bar chart displaying number of values on each column
-    public Chart getBarChart() throws IOException, Exception {}
-
-    // method makes bar chart displaying number of strings that equals to one of the values in the given list
-    public Chart getBarChart(String[] values) throws IOException, Exception {}
-
-    // makes column chart displaying number of values on each column
-    public Chart getColumnChart() throws IOException, Exception {}
-
-    // makes column chart displaying number of strings that equals to one of the values in the given list
-    public Chart getColumnChart(String[] values) throws IOException, Exception {}
-
-    // method makes plot to display values in pairs
-    public Chart getPlot(int xColumn, int yColumn) throws IOException {}
-
-    // metod makes plot to display best fit line
-    public Chart getPlot(double[] constants) throws IOException {}
+}
@@ -0,0 +1,97 @@
+/* This class gives every distinct string a number (code), so that tables with many repeated values can store
+ * the codes instead of one string object per cell. One dictionary can be shared by several tables.
+ * Codes are never taken back, a dictionary only grows.
+ * Only encode(String) takes a lock. The strings are kept in an array that is published again after every new
+ * string, so decoding a code, which happens for every cell that is read, never waits for another thread.
+ */
+
+package analogdv;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class StringDictionary {
+
+    /* FIELDS */
+
+    private ConcurrentHashMap<String, Integer> codes; // string -> code
+    private volatile String[] values; // code -> string, only the first size elements are used
+    private volatile int size; // number of distinct strings, written after the string itself
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor, empty dictionary
+     */
+    public StringDictionary() {
+
+        this.codes = new ConcurrentHashMap<String, Integer>();
+        this.values = new String[16];
+        this.size = 0;
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Fetches the code of a string, the string is added to the dictionary if it isn't already in it
+     *
+     * @param value the string
+     * @return code of the string
+     */
+    public synchronized int encode(String value) {
+
+        Integer code = this.codes.get(value);
+        if (code == null) {
+
+            code = this.size;
+            String[] values = this.values;
+            if (code == values.length) {
+
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[code] = value;
+            this.values = values; // publishes the string to threads that decode without the lock
+            this.size = code + 1;
+            this.codes.put(value, code);
+        }
+
+        return code;
+    }
+
+    /**
+     * Fetches the code of a string without adding it
+     *
+     * @param value the string
+     * @return code of the string, -1 if it isn't in the dictionary
+     */
+    public int lookup(String value) {
+
+        Integer code = this.codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Fetches the string behind a code
+     *
+     * @param code code given by encode(String)
+     * @return the string
+     */
+    public String decode(int code) {
+
+        if (code < 0 || code >= this.size) {
+
+            throw new IndexOutOfBoundsException("Index " + code + " out of bounds for length " + this.size);
+        }
+
+        return this.values[code];
+    }
+
+    /**
+     * Fetches number of distinct strings in the dictionary
+     *
+     * @return number of strings
+     */
+    public int size() {
+
+        return this.size;
+    }
+}
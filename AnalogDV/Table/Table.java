@@ -6,15 +6,40 @@
 
 package analogdv;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 public abstract class Table {
 
     /* FIELDS */
 
-    private StringBuilder table; // string representation of table, with elements inserted
-    private ArrayList<String> tableElements; // list of elements that occupy cells of table
+    private static final int IMPORT_BATCH_ROWS = 8192; // rows of a delimited file that are added to the table with one change
+
+    private StringBuilder table; // string representation of table, with elements inserted, built when it is asked for
+    private List<String> tableElements; // list of elements that occupy cells of table
+    private TreeMap<Integer, Integer> cellWidths; // length of element -> number of elements with that length
     private int numberOfColumns; // sets maximum number of columns on each row
     private int maxCellSize; // maximum numbers characters in each cell
+    private int firstChangedCell; // cells from this one and on have changed since table was built, MAX_VALUE if none
+    private int builtColumns; // number of columns the string representation was built with
+    private int builtCellSize; // cell size the string representation was built with
+    private long contentHash; // sum of the hashes of all elements, the same for tables with the same elements in any order
+    private ArrayList<Long> rowHashes; // hash of each row, used to find rows that two tables have in common
+    private int firstUnhashedCell; // cells from this one and on have changed since rows were hashed, MAX_VALUE if none
+    private ValueIndex<String> valueIndex; // where each element is, null unless asked for with useIndex()
+    private TableMetrics metrics; // where the time of layout, parsing and persisting is reported
 
     /* METHODS - constructors */
 
@@ -27,7 +52,20 @@ public abstract class Table {
      */
     public Table(ArrayList<String> elements, int columns) throws Exception {
 
-        this.formatTable(elements, columns);
+        this.testColumnValue(columns);
+        this.tableElements = new ChunkedList<String>(elements);
+        this.cellWidths = new TreeMap<Integer, Integer>();
+        this.contentHash = 0;
+        for (String element : elements) {
+
+            this.countWidth(element, 1);
+            this.contentHash += hashElement(element);
+        }
+        this.maxCellSize = this.getMaxCellSize();
+        this.firstChangedCell = 0;
+        this.rowHashes = new ArrayList<Long>();
+        this.firstUnhashedCell = 0;
+        this.metrics = TableMetrics.NONE;
     }
 
     /**
@@ -39,27 +77,11 @@ public abstract class Table {
      */
     public Table(int columns) throws Exception {
 
-        this.createEmptyTable(columns);
-        this.tableElements = new ArrayList<String>(); // needed because call above makes another list filled with white-spaces
+        this(new ArrayList<String>(), columns);
     }
 
     /* METHODS - internal */
 
-    /**
-     * Gets everything ready for creation of table
-     * @param elements ready-made list of elements
-     * @param columns maximum number of columns on each row, should be greater than 0
-     * @throws Exception if columns < 1
-     */
-    private void formatTable(ArrayList<String> elements, int columns) throws Exception {
-
-        this.maxCellSize = this.getMaxCellSize(elements);
-        ArrayList<String> formattedElements = this.formatCells(elements, maxCellSize);
-        this.testColumnValue(columns);
-        this.table = this.buildTable(formattedElements, this.numberOfColumns, this.maxCellSize);
-        this.tableElements = elements;
-    }
-
     /**
      * Tests if argument for the columns field is viable (greater than 0) or not
      *
@@ -78,99 +100,295 @@ public abstract class Table {
     }
 
     /**
-     * Creates an empty table string for aesthetics
+     * Keeps track of how many elements there are of each length, so the widest one is always known
+     *
+     * @param element element that was added or removed
+     * @param change 1 if it was added, -1 if it was removed
      */
-    private void createEmptyTable(int columns) throws Exception {
+    private void countWidth(String element, int change) {
 
-        ArrayList<String> elementsDummy = new ArrayList<String>();
-        for (int i = 0; i < 8; i++) {
+        int count = this.cellWidths.getOrDefault(element.length(), 0) + change;
+        if (count == 0) {
+
+            this.cellWidths.remove(element.length());
+        }
+        else {
 
-            elementsDummy.add("");
+            this.cellWidths.put(element.length(), count);
         }
-        this.formatTable(elementsDummy, columns);
     }
 
     /**
-     * Checks the length of each element of a strings list
+     * Calculates the hash of an element, spread out over 64 bits so that sums of hashes rarely collide
      *
-     * @param elements list of strings
-     * @return maximum length of a cell
+     * @param element the element
+     * @return hash of the element
      */
-    private int getMaxCellSize(ArrayList<String> elements) {
+    private static long hashElement(String element) {
 
-        int cellSize = 0;
-        for (String element : elements) {
+        long hash = element.hashCode() * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Marks cells as changed, both for the string representation and for the row hashes
+     *
+     * @param cell first cell that has changed
+     */
+    private void markChanged(int cell) {
 
-            if (element.length() > cellSize) {
+        this.firstChangedCell = Math.min(this.firstChangedCell, cell);
+        this.firstUnhashedCell = Math.min(this.firstUnhashedCell, cell);
+    }
 
-                cellSize = element.length();
+    /**
+     * Adds an element to the value index, if there is one
+     *
+     * @param element element that was added at the end of the table
+     * @param cellNumber where in the table the element is
+     */
+    private void indexElement(String element, int cellNumber) {
+
+        if (this.valueIndex != null) {
+
+            this.valueIndex.add(element, cellNumber);
+        }
+    }
+
+    /**
+     * Marks the value index as stale, if there is one, it is built again when it is used next time
+     */
+    private void invalidateIndex() {
+
+        if (this.valueIndex != null) {
+
+            this.valueIndex.invalidate();
+        }
+    }
+
+    /**
+     * Brings the row hashes up to date with the elements, only the rows from the first changed cell and
+     * down are hashed again
+     */
+    private void hashIfChanged() {
+
+        if (this.firstUnhashedCell == Integer.MAX_VALUE) {
+
+            return;
+        }
+
+        int firstRow = Math.min(this.firstUnhashedCell / this.numberOfColumns, this.rowHashes.size());
+        this.rowHashes.subList(firstRow, this.rowHashes.size()).clear();
+
+        Iterator<String> iterator = this.tableElements.listIterator(firstRow * this.numberOfColumns);
+        long rowHash = 1;
+        for (int i = firstRow * this.numberOfColumns; i < this.tableElements.size(); i++) {
+
+            rowHash = 31 * rowHash + hashElement(iterator.next());
+            if ((i + 1) % this.numberOfColumns == 0 || (i + 1) == this.tableElements.size()) {
+
+                this.rowHashes.add(rowHash);
+                rowHash = 1;
             }
         }
 
-        return cellSize + 4; // for "[ " and " ]" at beginning and end
+        this.firstUnhashedCell = Integer.MAX_VALUE;
     }
 
     /**
-     * Formats each element of the string list for fit into the table properly
+     * Checks if a row of this table has the same elements as a row of another table
      *
-     * @param elements list of string elements
-     * @param cellSize max length of a cell in table
-     * @return formatted list of string elements
+     * @param row number of the row in this table
+     * @param otherTable the other table
+     * @param otherRow number of the row in the other table
+     * @return true if the rows have the same elements, in the same order
      */
-    private ArrayList<String> formatCells(ArrayList<String> elements, int cellSize) {
+    private boolean isSameRow(int row, Table otherTable, int otherRow) {
 
-        ArrayList<String> formattedElements = new ArrayList<String>();
-        for (int i = 0; i < elements.size(); i++) {
+        int from = row * this.numberOfColumns;
+        int to = Math.min(from + this.numberOfColumns, this.tableElements.size());
+        int otherFrom = otherRow * otherTable.numberOfColumns;
+        int otherTo = Math.min(otherFrom + otherTable.numberOfColumns, otherTable.tableElements.size());
+
+        return this.tableElements.subList(from, to).equals(otherTable.tableElements.subList(otherFrom, otherTo));
+    }
 
-            String element = "[ " + elements.get(i);
-            while (element.length() < cellSize - 1) {
+    /**
+     * Generates error messages
+     *
+     * @param message is what implementer wants to convey to user
+     * @param line is where in the text-file it was found
+     * @param file is the path to the file the error was found in
+     * @return the full error message
+     */
+    static String generateErrorMessage(String message, int line, String file) {
 
-                element = element + " ";
+        StringBuilder errorMessage = new StringBuilder();
+        errorMessage.append("\nLine: " + line);
+        errorMessage.append("\nFile: " + file);
+        errorMessage.append("\nMessage: " + message);
+
+        return errorMessage.toString();
+    }
+
+    /**
+     * Checks if a value can be stored in a cell in a way that can be read back from a table file
+     *
+     * @param value the value
+     * @return false if the value is empty, or has whitespace or brackets in it
+     */
+    private static boolean isStorable(String value) {
+
+        for (int i = 0; i < value.length(); i++) {
+
+            char c = value.charAt(i);
+            if (Character.isWhitespace(c) || c == '[' || c == ']') {
+
+                return false;
             }
-            formattedElements.add(element + "]");
         }
 
-        return formattedElements;
+        return value.length() > 0;
+    }
+
+    /**
+     * Fetches the length of the longest element
+     *
+     * @return maximum length of a cell
+     */
+    private int getMaxCellSize() {
+
+        int cellSize = this.cellWidths.isEmpty() ? 0 : this.cellWidths.lastKey();
+        return cellSize + 4; // for "[ " and " ]" at beginning and end
+    }
+
+    /**
+     * Formats an element to fit into the table properly, and adds it to a row. Also used by TableFileMerger,
+     * which writes rows without a table
+     *
+     * @param row the row the cell is added to
+     * @param element string element
+     * @param cellSize max length of a cell in table
+     */
+    static void formatCell(StringBuilder row, String element, int cellSize) {
+
+        row.append("[ ");
+        row.append(element);
+        for (int i = element.length() + 2; i < cellSize - 1; i++) {
+
+            row.append(" ");
+        }
+        row.append("]");
     }
 
     /**
      * Builds the string representation of the table, with all elements insterted
      *
-     * @param elements formatted list of string elements
+     * @param elements list of string elements
      * @param columns maximum number of columns in each row
      * @param cellSize maximum length of a cell
      * @return string representation of table, as a stringbuilder
      */
-    private StringBuilder buildTable(ArrayList<String> elements, int columns, int cellSize) {
+    private StringBuilder buildTable(List<String> elements, int columns, int cellSize) {
 
         StringBuilder table = new StringBuilder();
+        table.append(getBar(cellSize, columns) + "\n");
+        this.buildRows(table, elements, 0, elements.size(), columns, cellSize);
+
+        return table;
+    }
+
+    /**
+     * Builds rows of the table and adds them to its string representation
+     *
+     * @param table string representation of table, ending with the bar above the first row to build
+     * @param elements list of string elements
+     * @param firstCell first element of the first row to build
+     * @param lastCell element after the last one to build
+     * @param columns maximum number of columns in each row
+     * @param cellSize maximum length of a cell
+     */
+    private void buildRows(StringBuilder table, List<String> elements, int firstCell, int lastCell, int columns, int cellSize) {
+
         StringBuilder row = new StringBuilder();
         String bar = getBar(cellSize, columns) + "\n";
-        table.append(bar);
+        Iterator<String> iterator = elements.listIterator(firstCell);
+
+        for (int i = firstCell; i < lastCell; i++) {
 
-        for (int i = 0; i < elements.size(); i++) {
+            formatCell(row, iterator.next(), cellSize);
 
-            if ((i + 1) == elements.size()) {
+            if ((i + 1) == lastCell) {
 
-                row.append(elements.get(i));
-                bar = getBar(row.toString().length(), 1);
+                bar = getBar(row.length(), 1);
                 table.append(row.toString() + "\n");
                 table.append(bar);
             }
             else if ((i + 1) % columns == 0) {
 
-                row.append(elements.get(i));
                 table.append(row.toString() + "\n");
                 table.append(bar);
                 row.setLength(0);
             }
-            else {
+        }
+    }
 
-                 row.append(elements.get(i));
+    /**
+     * Rebuilds the rows of the table from a given row and down, the rows above are left as they are.
+     * Only works if the number of columns and the size of the cells haven't changed
+     *
+     * @param firstRow number of the first row that has changed, counting from 0
+     */
+    private void rebuildRows(int firstRow) {
+
+        int lineLength = this.maxCellSize * this.numberOfColumns + 1; // every full row, and bar, ends with a line break
+        int firstCell = firstRow * this.numberOfColumns;
+        this.table.setLength(lineLength * (2 * firstRow + 1) - 1); // keeps the bar above the first row
+
+        if (firstCell < this.tableElements.size()) {
+
+            this.table.append("\n");
+            this.buildRows(this.table, this.tableElements, firstCell, this.tableElements.size(), this.numberOfColumns, this.maxCellSize);
+        }
+    }
+
+    /**
+     * Brings the string representation of the table up to date with the elements. Only the rows that have
+     * changed are rebuilt, unless the number of columns or the size of the cells has changed
+     */
+    private void buildIfChanged() {
+
+        if (this.firstChangedCell == Integer.MAX_VALUE) {
+
+            return;
+        }
+
+        OperationTimer timer = this.startTimer(TableMetrics.LAYOUT);
+        int builtCells = this.tableElements.size();
+        if (this.tableElements.isEmpty()) { // creates an empty table string for aesthetics
+
+            ArrayList<String> elementsDummy = new ArrayList<String>();
+            for (int i = 0; i < 8; i++) {
+
+                elementsDummy.add("");
             }
+            this.table = this.buildTable(elementsDummy, this.numberOfColumns, this.maxCellSize);
         }
+        else if (this.table != null && this.builtColumns == this.numberOfColumns && this.builtCellSize == this.maxCellSize) {
 
-        return table;
+            int firstRow = this.firstChangedCell / this.numberOfColumns;
+            this.rebuildRows(firstRow);
+            builtCells = Math.max(0, builtCells - firstRow * this.numberOfColumns);
+        }
+        else {
+
+            this.table = this.buildTable(this.tableElements, this.numberOfColumns, this.maxCellSize);
+        }
+
+        this.builtColumns = this.numberOfColumns;
+        this.builtCellSize = this.maxCellSize;
+        this.firstChangedCell = Integer.MAX_VALUE;
+        timer.stop(builtCells, 0, 0);
     }
 
     /**
@@ -180,7 +398,7 @@ public abstract class Table {
      * @param columns max number of columns on each row
      * @return string representation of a bar
      */
-    private String getBar(int cellSize, int columns) {
+    static String getBar(int cellSize, int columns) {
 
         StringBuilder b = new StringBuilder();
         int limit = cellSize * columns;
@@ -193,8 +411,360 @@ public abstract class Table {
         return b.toString();
     }
 
+    /**
+     * Tests if a range of rows is viable
+     *
+     * @param fromRow first row, counting from 0
+     * @param toRow row after the last one
+     * @throws IndexOutOfBoundsException if fromRow < 0 or toRow < fromRow
+     */
+    private void testRowRange(int fromRow, int toRow) {
+
+        if (fromRow < 0 || toRow < fromRow) {
+
+            throw new IndexOutOfBoundsException("Rows [" + fromRow + ", " + toRow + ") is not a valid range");
+        }
+    }
+
+    /**
+     * Checks that all queued changes can be applied, so that a batch is either applied entirely or not at all
+     *
+     * @param editor queued changes
+     * @throws Exception if a change would set columns < 1
+     * @throws IndexOutOfBoundsException if a change would remove a cell that doesn't exist
+     */
+    private void testChanges(TableEditor editor) throws Exception {
+
+        int size = this.tableElements.size();
+        for (String[] record : editor.getRecords()) {
+
+            switch (record[0].charAt(0)) {
+
+                case TableEditor.ADD:
+                    size++;
+                    break;
+                case TableEditor.ADD_LIST:
+                    size += record.length - 1;
+                    break;
+                case TableEditor.REMOVE:
+                    int cellNumber = Integer.parseInt(record[1]);
+                    if (cellNumber < 0 || cellNumber >= size) {
+
+                        throw new IndexOutOfBoundsException("Index " + cellNumber + " out of bounds for length " + size);
+                    }
+                    size--;
+                    break;
+                case TableEditor.REMOVE_RANGE:
+                    int from = Integer.parseInt(record[1]);
+                    int to = Integer.parseInt(record[2]);
+                    if (from < 0 || to > size || from > to) {
+
+                        throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + size);
+                    }
+                    size -= to - from;
+                    break;
+                case TableEditor.SET_COLUMNS:
+                    if (Integer.parseInt(record[1]) < 1) {
+
+                        throw new Exception("NUMBER OF COLUMNS ON EACH ROW SHOULD BE GREATER THAN 0");
+                    }
+                    break;
+                case TableEditor.CLEAR:
+                    size = 0;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Applies queued changes to the list of elements. The table itself is built the next time it is asked for,
+     * from the first changed cell and down
+     *
+     * @param editor queued changes
+     * @throws Exception if a change is not viable, nothing is changed in that case
+     */
+    private void applyChanges(TableEditor editor) throws Exception {
+
+        this.materialize();
+        this.testChanges(editor);
+
+        for (String[] record : editor.getRecords()) {
+
+            switch (record[0].charAt(0)) {
+
+                case TableEditor.ADD:
+                case TableEditor.ADD_LIST:
+                    this.markChanged(this.tableElements.size());
+                    for (int i = 1; i < record.length; i++) {
+
+                        this.tableElements.add(record[i]);
+                        this.countWidth(record[i], 1);
+                        this.contentHash += hashElement(record[i]);
+                        this.indexElement(record[i], this.tableElements.size() - 1);
+                    }
+                    break;
+                case TableEditor.REMOVE:
+                    int cellNumber = Integer.parseInt(record[1]);
+                    this.markChanged(cellNumber);
+                    String element = this.tableElements.remove(cellNumber);
+                    this.countWidth(element, -1);
+                    this.contentHash -= hashElement(element);
+                    this.invalidateIndex();
+                    break;
+                case TableEditor.REMOVE_RANGE:
+                    int from = Integer.parseInt(record[1]);
+                    int to = Integer.parseInt(record[2]);
+                    this.markChanged(from);
+                    List<String> removed = this.tableElements.subList(from, to);
+                    for (String removedElement : removed) {
+
+                        this.countWidth(removedElement, -1);
+                        this.contentHash -= hashElement(removedElement);
+                    }
+                    removed.clear();
+                    this.invalidateIndex();
+                    break;
+                case TableEditor.SET_COLUMNS:
+                    this.numberOfColumns = Integer.parseInt(record[1]);
+                    this.markChanged(0);
+                    break;
+                case TableEditor.CLEAR:
+                    this.tableElements.clear();
+                    this.cellWidths.clear();
+                    this.contentHash = 0;
+                    this.markChanged(0);
+                    this.invalidateIndex();
+                    break;
+            }
+        }
+
+        this.maxCellSize = this.getMaxCellSize();
+    }
+
+    /**
+     * Builds the string representation of some elements, formatted the same way as the table but with cells
+     * only as wide as the widest of those elements. Used by subclasses that store parts of the table apart
+     *
+     * @param elements list of string elements, should not be empty
+     * @return string representation of the elements
+     */
+    String render(List<String> elements) {
+
+        int cellSize = 0;
+        for (String element : elements) {
+
+            cellSize = Math.max(cellSize, element.length());
+        }
+
+        OperationTimer timer = this.startTimer(TableMetrics.LAYOUT);
+        String table = this.buildTable(elements, this.numberOfColumns, cellSize + 4).toString();
+        timer.stop(elements.size(), 0, 0);
+
+        return table;
+    }
+
+    /**
+     * Fetches the elements of the table, used by subclasses that store parts of the table apart
+     *
+     * @return list of elements, should not be changed
+     */
+    List<String> getElements() {
+
+        return this.tableElements;
+    }
+
+    /**
+     * Starts timing an operation, it is reported to the metrics of the table and to Flight Recorder
+     *
+     * @param operation name of the operation, see TableMetrics
+     * @return the timer, stop it when the operation is done
+     */
+    OperationTimer startTimer(String operation) {
+
+        return new OperationTimer(this.metrics, operation);
+    }
+
+    /**
+     * Makes sure the elements are in memory. Subclasses that read their elements lazily (from a file) override
+     * this, it is called before the elements are used
+     *
+     * @throws IOException if something happens while reading the elements
+     */
+    protected void materialize() throws IOException {
+
+    }
+
+    /**
+     * Same as materialize(), for methods that can't throw checked exceptions
+     *
+     * @throws UncheckedIOException if something happens while reading the elements
+     */
+    private void materializeUnchecked() {
+
+        try {
+
+            this.materialize();
+        }
+        catch (IOException e) {
+
+            throw new UncheckedIOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Applies queued changes to the table, subclasses override this to keep their own state (and files)
+     * up to date with one write per batch
+     *
+     * @param editor queued changes
+     * @throws Exception if something happens while formatting table, nothing is changed in that case
+     */
+    protected void commit(TableEditor editor) throws Exception {
+
+        this.applyChanges(editor);
+    }
+
     /* METHODS - interface */
 
+    /**
+     * Lets user make several changes to the table at once, the table is only formatted once for all of them
+     *
+     * @param changes queues the changes, e.g. editor -> { editor.remove(0); editor.add("new"); }
+     * @throws Exception if something happens while formatting table, nothing is changed in that case
+     */
+    public void batch(Consumer<TableEditor> changes) throws Exception {
+
+        TableEditor editor = new TableEditor();
+        changes.accept(editor);
+        this.commit(editor);
+    }
+
+    /**
+     * Reads rows that someone else has added to where the table is stored. Tables that aren't stored anywhere
+     * have nothing to read, the file-backed tables override this
+     *
+     * @return number of elements that were added to the table
+     * @throws IOException if something happens while reading from file or if file is not formatted properly
+     * @throws Exception if the table can't be refreshed in its current state
+     */
+    public int refresh() throws IOException, Exception {
+
+        return 0;
+    }
+
+    /**
+     * Prints changes that are only kept in a journal out to where the table is stored. Tables that aren't
+     * stored anywhere, or that store every change right away, have nothing to print, the journaled tables
+     * override this
+     *
+     * @throws IOException if something happens while writing to file
+     */
+    public void flush() throws IOException {
+
+    }
+
+    /**
+     * Lets user see where the time of the table goes. Layout, parsing, persisting and statistics are reported
+     * to the metrics, e.g. a TableMetricsRecorder, that can be shared by several tables
+     *
+     * @param metrics where operations are reported, TableMetrics.NONE to stop reporting
+     */
+    public void useMetrics(TableMetrics metrics) {
+
+        this.metrics = metrics == null ? TableMetrics.NONE : metrics;
+    }
+
+    /**
+     * Lets user keep an index of where each value is in the table, so that indexOf, contains and positionsOf
+     * don't have to go through all elements. The index is kept up to date when elements are added, and is
+     * built again on the next lookup after elements have been removed
+     */
+    public void useIndex() {
+
+        if (this.valueIndex == null) {
+
+            this.valueIndex = new ValueIndex<String>(UnaryOperator.identity());
+        }
+    }
+
+    /**
+     * Finds where in the table the first occurrence of a value is
+     *
+     * @param value value to look for
+     * @return cell number of the value, -1 if it isn't in the table
+     */
+    public int indexOf(String value) {
+
+        this.materializeUnchecked();
+        if (this.valueIndex == null) {
+
+            return this.tableElements.indexOf(value);
+        }
+
+        List<Integer> positions = this.valueIndex.positionsOf(this.tableElements, value);
+        return positions.isEmpty() ? -1 : positions.get(0);
+    }
+
+    /**
+     * Checks if a value is in the table
+     *
+     * @param value value to look for
+     * @return true if it is in the table
+     */
+    public boolean contains(String value) {
+
+        return this.indexOf(value) != -1;
+    }
+
+    /**
+     * Finds where in the table every occurrence of a value is
+     *
+     * @param value value to look for
+     * @return cell numbers of the value in increasing order, empty if it isn't in the table
+     */
+    public ArrayList<Integer> positionsOf(String value) {
+
+        this.materializeUnchecked();
+        if (this.valueIndex != null) {
+
+            return new ArrayList<Integer>(this.valueIndex.positionsOf(this.tableElements, value));
+        }
+
+        ArrayList<Integer> positions = new ArrayList<Integer>();
+        int cellNumber = 0;
+        for (String element : this.tableElements) {
+
+            if (element.equals(value)) {
+
+                positions.add(cellNumber);
+            }
+            cellNumber++;
+        }
+
+        return positions;
+    }
+
+    /**
+     * Lets user store the elements as codes of a dictionary instead of as separate strings. Worth it when the
+     * same values occur many times, tables that share a dictionary also compare their elements as numbers
+     *
+     * @param dictionary the dictionary, can be shared between tables
+     */
+    public void useDictionary(StringDictionary dictionary) {
+
+        this.materializeUnchecked();
+        this.tableElements = new DictionaryEncodedList(dictionary, this.tableElements);
+    }
+
+    /**
+     * Lets user keep the elements outside of the Java heap, so that very large tables don't slow down garbage
+     * collection. Use getTable(int, int) to look at parts of the table without building all of it on the heap
+     */
+    public void useOffHeapStorage() {
+
+        this.materializeUnchecked();
+        this.tableElements = new OffHeapList(this.tableElements);
+    }
+
     /**
      * Lets user change number of columns on each row
      *
@@ -203,7 +773,9 @@ public abstract class Table {
      */
     public void setColumns(int columns) throws Exception {
 
-        this.formatTable(this.tableElements, columns);
+        this.materialize();
+        this.testColumnValue(columns);
+        this.markChanged(0);
     }
 
     /**
@@ -224,8 +796,9 @@ public abstract class Table {
      */
     public void add(String element) throws Exception {
 
-        this.tableElements.add(element);
-        this.formatTable(this.tableElements, this.numberOfColumns);
+        TableEditor editor = new TableEditor();
+        editor.add(element);
+        this.applyChanges(editor);
     }
 
     /**
@@ -236,8 +809,9 @@ public abstract class Table {
      */
     public void add(ArrayList<String> elements) throws Exception {
 
-        this.tableElements.addAll(elements);
-        this.formatTable(this.tableElements, this.numberOfColumns);
+        TableEditor editor = new TableEditor();
+        editor.add(elements);
+        this.applyChanges(editor);
     }
 
     /**
@@ -246,8 +820,9 @@ public abstract class Table {
      */
     public void clear() throws Exception {
 
-        this.createEmptyTable(this.numberOfColumns);
-        this.tableElements = new ArrayList<String>(); // needed because call above makes another list filled with white-spaces
+        TableEditor editor = new TableEditor();
+        editor.clear();
+        this.applyChanges(editor);
     }
 
     /**
@@ -258,6 +833,13 @@ public abstract class Table {
      */
     public boolean equals(Table otherTable) {
 
+        this.materializeUnchecked();
+        otherTable.materializeUnchecked();
+        if (this.tableElements.size() != otherTable.tableElements.size() || this.contentHash != otherTable.contentHash) {
+
+            return false; // decided without looking at a single element
+        }
+
         boolean result = this.tableElements.equals(otherTable.tableElements);
         return result;
      }
@@ -270,36 +852,335 @@ public abstract class Table {
      */
     public void merge(Table otherTable) throws Exception {
 
-        this.add(otherTable.tableElements);
+        if (this.equals(otherTable)) {
+
+            return;
+        }
+
+        this.add(new ArrayList<String>(otherTable.tableElements));
     }
 
     /**
-     * Removes an element with specified index from the table
+     * Extracts the rows of another table that this table doesn't already have, and adds them to this table.
+     * Rows are compared by their hashes, so only rows with the same hash are compared element by element.
+     * A row that is in the other table more than once is only added once
+     *
+     * @param otherTable another instance of a class that extends Table
+     * @throws Exception if something happens while formatting table
+     */
+    public void mergeRows(Table otherTable) throws Exception {
+
+        this.materialize();
+        otherTable.materialize();
+        this.hashIfChanged();
+        otherTable.hashIfChanged();
+
+        HashMap<Long, ArrayList<Integer>> ownRows = new HashMap<Long, ArrayList<Integer>>(); // hash -> rows of this table
+        for (int row = 0; row < this.rowHashes.size(); row++) {
+
+            ownRows.computeIfAbsent(this.rowHashes.get(row), hash -> new ArrayList<Integer>()).add(row);
+        }
+
+        HashMap<Long, ArrayList<Integer>> newRows = new HashMap<Long, ArrayList<Integer>>(); // hash -> rows of other table to add
+        ArrayList<String> newElements = new ArrayList<String>();
+        for (int otherRow = 0; otherRow < otherTable.rowHashes.size(); otherRow++) {
+
+            long hash = otherTable.rowHashes.get(otherRow);
+            boolean isKnown = false;
+            for (int row : ownRows.getOrDefault(hash, new ArrayList<Integer>())) {
+
+                isKnown = isKnown || this.isSameRow(row, otherTable, otherRow);
+            }
+            for (int row : newRows.getOrDefault(hash, new ArrayList<Integer>())) {
+
+                isKnown = isKnown || otherTable.isSameRow(row, otherTable, otherRow);
+            }
+
+            if (!isKnown) {
+
+                newRows.computeIfAbsent(hash, key -> new ArrayList<Integer>()).add(otherRow);
+                int from = otherRow * otherTable.numberOfColumns;
+                int to = Math.min(from + otherTable.numberOfColumns, otherTable.tableElements.size());
+                newElements.addAll(otherTable.tableElements.subList(from, to));
+            }
+        }
+
+        if (!newElements.isEmpty()) {
+
+            this.add(newElements);
+        }
+    }
+
+    /**
+     * Reads a delimited file (CSV, TSV) and adds its fields to the table, one line becomes one row. The file
+     * is read line by line, and the fields are added in batches with one change each, so the memory used on
+     * top of the table itself doesn't grow with the file. The table is only formatted when it is asked for.
+     * If a line isn't viable, the batches before it stay in the table
+     *
+     * @param path where the file is
+     * @param delimiter character between the fields, e.g. ',' or '\t'
+     * @param columns number of fields on each line, becomes the number of columns of the table
+     * @throws IOException if something happens while reading from file or if file is not formatted properly
+     * @throws Exception if columns < 1, or if something happens while formatting table
+     */
+    public void importDelimited(String path, char delimiter, int columns) throws IOException, Exception {
+
+        BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8);
+        ArrayList<String> fields = new ArrayList<String>();
+        ArrayList<String> elements = new ArrayList<String>();
+        TableEditor editor = new TableEditor();
+        editor.setColumns(columns);
+        int lineCounter = 0;
+        String line;
+
+        try {
+
+            while ((line = reader.readLine()) != null) {
+
+                lineCounter++;
+                if (line.isEmpty()) {
+
+                    continue;
+                }
+                else if (!DelimitedCodec.split(line, delimiter, fields)) {
+
+                    throw new IOException(generateErrorMessage("QUOTED FIELD IS NOT CLOSED", lineCounter, path));
+                }
+                else if (fields.size() != columns) {
+
+                    String message = "LINE HAS " + fields.size() + " FIELDS, SHOULD HAVE " + columns;
+                    throw new IOException(generateErrorMessage(message, lineCounter, path));
+                }
+
+                for (String field : fields) {
+
+                    if (!isStorable(field)) {
+
+                        String message = "FIELD \"" + field + "\" CANNOT BE STORED IN A CELL, IT IS EMPTY OR HAS WHITESPACE OR BRACKETS IN IT";
+                        throw new IOException(generateErrorMessage(message, lineCounter, path));
+                    }
+                }
+
+                elements.addAll(fields);
+                if (elements.size() >= IMPORT_BATCH_ROWS * columns) {
+
+                    editor.add(elements);
+                    this.commit(editor);
+                    editor = new TableEditor();
+                    elements.clear();
+                }
+            }
+
+            if (!elements.isEmpty()) {
+
+                editor.add(elements);
+            }
+            this.commit(editor);
+        }
+        finally {
+
+            reader.close();
+        }
+    }
+
+    /**
+     * Writes the elements of the table to a delimited file (CSV, TSV), one row becomes one line. The lines are
+     * written one element at a time, the string representation of the table is never built
+     *
+     * @param path where the file should be, it is overwritten if it exists
+     * @param delimiter character between the fields, e.g. ',' or '\t'
+     * @throws IOException if something happens while writing to file
+     */
+    public void exportDelimited(String path, char delimiter) throws IOException {
+
+        this.materialize();
+        BufferedWriter writer = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8);
+
+        try {
+
+            int column = 0;
+            for (String element : this.tableElements) {
+
+                if (column > 0) {
+
+                    writer.write(delimiter);
+                }
+                DelimitedCodec.write(writer, element, delimiter);
+                column++;
+
+                if (column == this.numberOfColumns) {
+
+                    writer.write('\n');
+                    column = 0;
+                }
+            }
+
+            if (column > 0) {
+
+                writer.write('\n');
+            }
+        }
+        finally {
+
+            writer.close();
+        }
+    }
+
+    /**
+     * Fetches the content hash of the table. Tables with the same elements, in any order, have the same hash,
+     * so tables with different hashes don't have the same content. It is kept up to date with every change
+     *
+     * @return content hash
+     */
+    public long getContentHash() {
+
+        this.materializeUnchecked();
+        return this.contentHash;
+    }
+
+    /**
+     * Removes an element with specified index from the table, only the rows from that element and down are rebuilt
      *
      * @param cellNumber is where in the table the element is
      * @throws Exception if something happens while formatting table
      */
     public void remove(int cellNumber) throws Exception {
 
-        this.tableElements.remove(cellNumber);
-        this.formatTable(this.tableElements, this.numberOfColumns);
+        TableEditor editor = new TableEditor();
+        editor.remove(cellNumber);
+        this.applyChanges(editor);
      }
 
+    /**
+     * Removes all elements from one cell up to, but not including, another
+     *
+     * @param fromCell where in the table the first element to remove is
+     * @param toCell where in the table the element after the last one to remove is
+     * @throws Exception if something happens while formatting table
+     */
+    public void removeRange(int fromCell, int toCell) throws Exception {
+
+        TableEditor editor = new TableEditor();
+        editor.removeRange(fromCell, toCell);
+        this.commit(editor);
+    }
+
+    /**
+     * Removes an entire row from the table, the rows below move up one step
+     *
+     * @param row number of the row, counting from 0
+     * @throws Exception if something happens while formatting table
+     */
+    public void removeRow(int row) throws Exception {
+
+        this.materialize();
+        int fromCell = row * this.numberOfColumns;
+        int toCell = Math.min(fromCell + this.numberOfColumns, this.tableElements.size());
+        this.removeRange(fromCell, toCell);
+    }
+
      /**
       * Fetches the string representation of the table
       * @return string representation of table, with elements if table is not empty
       */
     public String getTable() {
 
+        this.materializeUnchecked();
+        this.buildIfChanged();
         return this.table.toString();
     }
 
+    /**
+     * Fetches the string representation of some rows of the table, with the same bars and cell sizes as in
+     * getTable(). Only the asked for rows are built
+     *
+     * @param fromRow first row, counting from 0
+     * @param toRow row after the last one, rows past the end of the table are ignored
+     * @return string representation of the rows
+     * @throws IndexOutOfBoundsException if fromRow < 0 or toRow < fromRow
+     */
+    public String getTable(int fromRow, int toRow) {
+
+        this.testRowRange(fromRow, toRow);
+        this.materializeUnchecked();
+        if (this.tableElements.isEmpty()) {
+
+            return this.getTable();
+        }
+
+        int firstCell = (int) Math.min((long) fromRow * this.numberOfColumns, this.tableElements.size());
+        int lastCell = (int) Math.min((long) toRow * this.numberOfColumns, this.tableElements.size());
+        StringBuilder rows = new StringBuilder();
+        rows.append(getBar(this.maxCellSize, this.numberOfColumns) + "\n");
+        this.buildRows(rows, this.tableElements, firstCell, lastCell, this.numberOfColumns, this.maxCellSize);
+
+        return rows.toString();
+    }
+
+    /**
+     * Walks through some rows of the table, building each row (without bars) only when it is reached
+     *
+     * @param fromRow first row, counting from 0
+     * @param toRow row after the last one, rows past the end of the table are ignored
+     * @return iterator over the rows
+     * @throws IndexOutOfBoundsException if fromRow < 0 or toRow < fromRow
+     */
+    public Iterator<String> rowIterator(int fromRow, int toRow) {
+
+        this.testRowRange(fromRow, toRow);
+        this.materializeUnchecked();
+        final int columns = this.numberOfColumns;
+        final int cellSize = this.maxCellSize;
+        final int lastCell = (int) Math.min((long) toRow * columns, this.tableElements.size());
+        final int firstCell = (int) Math.min((long) fromRow * columns, lastCell);
+        final Iterator<String> elements = this.tableElements.listIterator(firstCell);
+
+        return new Iterator<String>() {
+
+            private int cell = firstCell;
+
+            public boolean hasNext() {
+
+                return this.cell < lastCell;
+            }
+
+            public String next() {
+
+                if (!this.hasNext()) {
+
+                    throw new NoSuchElementException();
+                }
+
+                StringBuilder row = new StringBuilder();
+                do {
+
+                    formatCell(row, elements.next(), cellSize);
+                    this.cell++;
+                } while (this.cell < lastCell && this.cell % columns != 0);
+
+                return row.toString();
+            }
+        };
+    }
+
+    /**
+     * Fetches number of rows in the table
+     *
+     * @return number of rows, the last one might not be full
+     */
+    public int getNumberOfRows() {
+
+        this.materializeUnchecked();
+        return (this.tableElements.size() + this.numberOfColumns - 1) / this.numberOfColumns;
+    }
+
     /**
      * Fetches size of the table, i.e number of elements the table contains
      * @return number of elements
      */
     public int size() {
 
+        this.materializeUnchecked();
         return this.tableElements.size();
     }
 }
@@ -0,0 +1,130 @@
+/* This class queues changes to a table, so that several changes can be applied with only one formatting
+ * of the table (and at most one write to file for the file-backed tables). See Table.batch(Consumer).
+ * Every change is kept in the same form as a record of the TableJournal.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+
+public class TableEditor {
+
+    /* FIELDS */
+
+    static final char ADD = 'A';
+    static final char ADD_LIST = 'L';
+    static final char REMOVE = 'R';
+    static final char REMOVE_RANGE = 'D';
+    static final char SET_COLUMNS = 'C';
+    static final char CLEAR = 'X';
+
+    private ArrayList<String[]> records; // queued changes, first field of every record is the operation
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor, used by Table.batch(Consumer)
+     */
+    TableEditor() {
+
+        this.records = new ArrayList<String[]>();
+    }
+
+    /**
+     * Second constructor, used when changes are read back from a journal
+     *
+     * @param records list of records, first field of every record is the operation
+     */
+    TableEditor(ArrayList<String[]> records) {
+
+        this.records = records;
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Fetches the queued changes
+     *
+     * @return list of records, first field of every record is the operation
+     */
+    ArrayList<String[]> getRecords() {
+
+        return this.records;
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Queues an element to be added to the table
+     *
+     * @param element new element to be insterted to table
+     */
+    public void add(String element) {
+
+        this.records.add(new String[] {String.valueOf(ADD), element});
+    }
+
+    /**
+     * Queues a list of elements to be added to the table
+     *
+     * @param elements new elements to be insterted to table
+     */
+    public void add(ArrayList<String> elements) {
+
+        String[] record = new String[elements.size() + 1];
+        record[0] = String.valueOf(ADD_LIST);
+        for (int i = 0; i < elements.size(); i++) {
+
+            record[i + 1] = elements.get(i);
+        }
+        this.records.add(record);
+    }
+
+    /**
+     * Queues removal of an element, the index is relative to the changes queued before this one
+     *
+     * @param cellNumber is where in the table the element is
+     */
+    public void remove(int cellNumber) {
+
+        this.records.add(new String[] {String.valueOf(REMOVE), String.valueOf(cellNumber)});
+    }
+
+    /**
+     * Queues removal of all elements from one cell up to, but not including, another
+     *
+     * @param fromCell where in the table the first element to remove is
+     * @param toCell where in the table the element after the last one to remove is
+     */
+    public void removeRange(int fromCell, int toCell) {
+
+        this.records.add(new String[] {String.valueOf(REMOVE_RANGE), String.valueOf(fromCell), String.valueOf(toCell)});
+    }
+
+    /**
+     * Queues a change of the number of columns on each row
+     *
+     * @param columns new maximum number of columns in a row
+     */
+    public void setColumns(int columns) {
+
+        this.records.add(new String[] {String.valueOf(SET_COLUMNS), String.valueOf(columns)});
+    }
+
+    /**
+     * Queues clearing of the entire table
+     */
+    public void clear() {
+
+        this.records.add(new String[] {String.valueOf(CLEAR)});
+    }
+
+    /**
+     * Fetches number of queued changes
+     *
+     * @return number of changes
+     */
+    public int size() {
+
+        return this.records.size();
+    }
+}
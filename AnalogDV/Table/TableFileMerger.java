@@ -0,0 +1,432 @@
+/* This class merges a table file into another one without loading either of them. The other file is read one
+ * row at a time, and the rows of the target file are copied byte for byte unless its cells have to be made
+ * wider for the new elements (or it has another number of columns), then they are streamed through and
+ * padded again. Only the last row of the target is always written again, since the new elements fill it up.
+ * Memory use doesn't grow with the size of the files, the merged file replaces the target in one move.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.io.*;
+
+class TableFileMerger {
+
+    /* FIELDS */
+
+    private File target; // the file the elements are added to
+    private File other; // the file the elements are taken from, it isn't changed
+    private int columns; // max number of columns in a row of the merged file
+    private RowVisitor visitor; // sees the rows of the other file before anything is written, null if not needed
+    private Writer output; // the merged file, while it is written
+    private StringBuilder row; // row being written, it is written out once it is known whether it is the last one
+    private int cellsInRow; // number of cells in row
+    private int cellSize; // size of the cells of the merged file
+    private String bar; // bar between full rows, with line break
+    private long bytesRead; // bytes of the files that have been read or copied
+    private long bytesWritten; // size of the merged file, 0 if nothing was written
+
+    /* sees a row of the other file, e.g. to check that its elements are numbers */
+    interface RowVisitor {
+
+        void visit(String line, TableReader reader) throws IOException;
+    }
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor
+     *
+     * @param target the file the elements are added to
+     * @param other the file the elements are taken from
+     * @param columns max number of columns in a row of the merged file
+     * @param visitor sees every row of the other file before the target is touched, can be null
+     */
+    TableFileMerger(File target, File other, int columns, RowVisitor visitor) {
+
+        this.target = target;
+        this.other = other;
+        this.columns = columns;
+        this.visitor = visitor;
+        this.row = new StringBuilder();
+        this.cellsInRow = 0;
+        this.bytesRead = 0;
+        this.bytesWritten = 0;
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Reads the other file once, to find how wide its cells have to be. The visitor sees every row
+     *
+     * @return length of the longest element, -1 if the file has no elements
+     * @throws IOException if something happens while reading from file or if file is not formatted properly
+     */
+    private int scanOther() throws IOException {
+
+        TableReader reader = new TableReader(this.other.getPath());
+        int longest = -1;
+        String line;
+
+        try {
+
+            while ((line = reader.readRowLine()) != null) {
+
+                for (int i = 0; i < reader.getNumberOfElements(); i++) {
+
+                    longest = Math.max(longest, reader.getElementEnd(i) - reader.getElementStart(i));
+                }
+
+                if (this.visitor != null) {
+
+                    this.visitor.visit(line, reader);
+                }
+            }
+        }
+        finally {
+
+            reader.close();
+        }
+
+        this.bytesRead += reader.getBytesRead();
+        return longest;
+    }
+
+    /**
+     * Checks if both files have the same content, byte for byte. The files are compared a block at a time, and
+     * only until the first difference
+     *
+     * @return true if they do
+     * @throws IOException if something happens while reading from file
+     */
+    private boolean isSameContent() throws IOException {
+
+        if (this.target.length() != this.other.length()) {
+
+            return false;
+        }
+
+        InputStream first = new FileInputStream(this.target);
+        InputStream second = new FileInputStream(this.other);
+        byte[] firstBlock = new byte[1 << 16];
+        byte[] secondBlock = new byte[1 << 16];
+
+        try {
+
+            while (true) {
+
+                int length = first.readNBytes(firstBlock, 0, firstBlock.length);
+                int otherLength = second.readNBytes(secondBlock, 0, length);
+                this.bytesRead += length + otherLength;
+
+                if (length != otherLength || !Arrays.equals(firstBlock, 0, length, secondBlock, 0, otherLength)) {
+
+                    return false;
+                }
+                else if (length < firstBlock.length) { // end of both files
+
+                    return true;
+                }
+            }
+        }
+        finally {
+
+            first.close();
+            second.close();
+        }
+    }
+
+    /**
+     * Finds where the line before a position in a file starts, by reading backwards from the position
+     *
+     * @param file the file
+     * @param end position after the line, i.e where its line break is
+     * @return position of the first byte of the line
+     * @throws IOException if something happens while reading from file
+     */
+    private long findLineStart(RandomAccessFile file, long end) throws IOException {
+
+        byte[] block = new byte[4096];
+        long position = end;
+
+        while (position > 0) {
+
+            int length = (int) Math.min(block.length, position);
+            file.seek(position - length);
+            file.readFully(block, 0, length);
+            this.bytesRead += length;
+
+            for (int i = length - 1; i >= 0; i--) {
+
+                if (block[i] == '\n') {
+
+                    return position - length + i + 1;
+                }
+            }
+            position -= length;
+        }
+
+        return 0;
+    }
+
+    /**
+     * Finds where the last row of the target file starts. A table file ends with the last row and a bar
+     * under it, the bar has no line break after it unless someone else has written the file
+     *
+     * @return position of the first byte of the last row
+     * @throws IOException if something happens while reading from file
+     */
+    private long findLastRow() throws IOException {
+
+        RandomAccessFile file = new RandomAccessFile(this.target, "r");
+        try {
+
+            long end = file.length();
+            file.seek(end - 1);
+            if (file.read() == '\n') {
+
+                end--;
+            }
+
+            long barStart = this.findLineStart(file, end);
+            if (barStart == 0) {
+
+                throw new IOException("TABLE FILE " + this.target + " HAS NO ROWS");
+            }
+
+            return this.findLineStart(file, barStart - 1);
+        }
+        finally {
+
+            file.close();
+        }
+    }
+
+    /**
+     * Adds a cell to the merged file, the row before it is written out if it is full
+     *
+     * @param element the element of the cell
+     * @throws IOException if something happens while writing to file
+     */
+    private void writeCell(String element) throws IOException {
+
+        if (this.cellsInRow == this.columns) {
+
+            this.output.write(this.row.toString());
+            this.output.write("\n");
+            this.output.write(this.bar);
+            this.row.setLength(0);
+            this.cellsInRow = 0;
+        }
+
+        Table.formatCell(this.row, element, this.cellSize);
+        this.cellsInRow++;
+    }
+
+    /**
+     * Adds the elements of a file to the merged file
+     *
+     * @param file the file
+     * @return number of elements that were added
+     * @throws IOException if something happens while reading from or writing to file
+     */
+    private long writeCells(File file) throws IOException {
+
+        TableReader reader = new TableReader(file.getPath());
+        ArrayList<String> elements;
+        long count = 0;
+
+        try {
+
+            while ((elements = reader.readRow()) != null) {
+
+                for (String element : elements) {
+
+                    this.writeCell(element);
+                }
+                count += elements.size();
+            }
+        }
+        finally {
+
+            reader.close();
+        }
+
+        this.bytesRead += reader.getBytesRead();
+        return count;
+    }
+
+    /**
+     * Writes the last row, with the short bar under it that the table files end with
+     *
+     * @throws IOException if something happens while writing to file
+     */
+    private void finishRows() throws IOException {
+
+        if (this.cellsInRow > 0) {
+
+            this.output.write(this.row.toString());
+            this.output.write("\n");
+            this.output.write(Table.getBar(this.row.length(), 1));
+        }
+    }
+
+    /**
+     * Reads the first two lines of the target file, i.e the bar on top and the first row
+     *
+     * @return the lines, the second one is null if there is none
+     * @throws IOException if something happens while reading from file
+     */
+    private String[] readHead() throws IOException {
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.target), StandardCharsets.UTF_8));
+        try {
+
+            return new String[] {reader.readLine(), reader.readLine()};
+        }
+        finally {
+
+            reader.close();
+        }
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Merges the other file into the target file, unless they have the same content
+     *
+     * @return number of elements that were added to the target file
+     * @throws IOException if the other file doesn't exist, if something happens while reading from or writing to
+     * file, if a file is not formatted properly, or if the visitor rejects a row of the other file
+     */
+    long merge() throws IOException {
+
+        if (!this.other.isFile()) {
+
+            throw new IOException("TABLE FILE " + this.other + " DOES NOT EXIST");
+        }
+        else if (this.other.length() == 0 || this.isSameContent()) {
+
+            return 0;
+        }
+
+        int longest = this.scanOther();
+        if (longest == -1) { // nothing to add
+
+            return 0;
+        }
+
+        String[] head = this.target.length() > 0 ? this.readHead() : new String[2];
+        boolean isEmpty = head[1] == null || head[1].startsWith("[  ]"); // an empty table only has empty cells
+        int targetCellSize = isEmpty ? 0 : head[1].indexOf(']') + 1;
+        boolean isCopied = !isEmpty && targetCellSize >= longest + 4 && head[0].length() == targetCellSize * this.columns;
+
+        this.cellSize = Math.max(targetCellSize, longest + 4);
+        this.bar = Table.getBar(this.cellSize, this.columns) + "\n";
+        File directory = this.target.getAbsoluteFile().getParentFile();
+        File temporary = Files.createTempFile(directory.toPath(), this.target.getName() + ".", ".tmp").toFile(); // own name, merges don't share it
+        FileOutputStream stream = new FileOutputStream(temporary);
+        long elements;
+        this.bytesWritten = -1; // until the merged file is complete
+
+        try {
+
+            if (isCopied) { // every row but the last stays as it is
+
+                long lastRow = this.findLastRow();
+                FileChannel input = new FileInputStream(this.target).getChannel();
+                try {
+
+                    long copied = 0;
+                    while (copied < lastRow) {
+
+                        copied += input.transferTo(copied, lastRow - copied, stream.getChannel());
+                    }
+                }
+                finally {
+
+                    input.close();
+                }
+                this.bytesRead += lastRow;
+
+                this.output = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16);
+                TableReader reader = new TableReader(this.target.getPath(), lastRow, 1); // the bar above is line 1
+                try {
+
+                    ArrayList<String> last = reader.readRow();
+                    if (last == null) {
+
+                        throw new IOException("TABLE FILE " + this.target + " IS NOT FORMATTED PROPERLY");
+                    }
+                    for (String element : last) {
+
+                        this.writeCell(element);
+                    }
+                }
+                finally {
+
+                    reader.close();
+                }
+                this.bytesRead += reader.getBytesRead() - lastRow;
+            }
+            else {
+
+                this.output = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16);
+                this.output.write(this.bar);
+                if (!isEmpty) { // cells are padded again
+
+                    this.writeCells(this.target);
+                }
+            }
+
+            elements = this.writeCells(this.other);
+            this.finishRows();
+            this.output.flush();
+            stream.getChannel().force(true); // on disk before it replaces the target
+            this.bytesWritten = 0;
+        }
+        finally {
+
+            if (this.output != null) {
+
+                this.output.close();
+            }
+            else {
+
+                stream.close();
+            }
+
+            if (this.bytesWritten == -1) { // something went wrong, the target is left as it was
+
+                temporary.delete();
+            }
+        }
+
+        TableFiles.move(temporary, this.target);
+        this.bytesWritten = this.target.length();
+        return elements;
+    }
+
+    /**
+     * Fetches the number of bytes that were read while merging
+     *
+     * @return bytes read from both files
+     */
+    long getBytesRead() {
+
+        return this.bytesRead;
+    }
+
+    /**
+     * Fetches the size of the merged file
+     *
+     * @return number of bytes written, 0 if nothing was
+     */
+    long getBytesWritten() {
+
+        return this.bytesWritten;
+    }
+}
@@ -0,0 +1,145 @@
+/* This class has the file operations that the file-backed tables share. A file is replaced by writing the new
+ * content to a temporary file, forcing it to disk and then moving it over the old one, so that a crash or a
+ * power loss leaves either the old or the new file behind, never a file that is cut off or empty.
+ */
+
+package analogdv;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.io.*;
+
+class TableFiles {
+
+    /* FIELDS */
+
+    private static final int SAMPLE_SIZE = 1 << 16; // bytes read at each end of the part that sampleChecksum checks
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor, not used since all methods are static
+     */
+    private TableFiles() {
+
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Writes a file and forces its content to disk before returning
+     *
+     * @param file the file, it is replaced if it exists
+     * @param content bytes of the file
+     * @throws IOException if something happens while writing to file
+     */
+    static void writeForced(File file, byte[] content) throws IOException {
+
+        FileOutputStream output = new FileOutputStream(file);
+        try {
+
+            output.write(content);
+            output.getChannel().force(true);
+        }
+        finally {
+
+            output.close();
+        }
+    }
+
+    /**
+     * Replaces the content of a file, through a temporary file next to it
+     *
+     * @param file the file
+     * @param content new bytes of the file
+     * @throws IOException if something happens while writing to file, the file is left as it was then
+     */
+    static void replace(File file, byte[] content) throws IOException {
+
+        File temporary = new File(file.getPath() + ".tmp");
+        writeForced(temporary, content);
+        move(temporary, file);
+    }
+
+    /**
+     * Moves a temporary file, whose content has been forced to disk, over another file. The move is atomic if
+     * the file system can do that, and the directory is forced to disk afterwards where the platform allows it
+     *
+     * @param temporary the temporary file
+     * @param file the file it replaces
+     * @throws IOException if something happens while moving the file
+     */
+    static void move(File temporary, File file) throws IOException {
+
+        try {
+
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) { // any other failure is a real one and is thrown
+
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        File directory = file.getAbsoluteFile().getParentFile();
+        try {
+
+            FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ);
+            try {
+
+                channel.force(true); // makes the move itself survive a power loss
+            }
+            finally {
+
+                channel.close();
+            }
+        }
+        catch (IOException e) {
+
+            // some platforms can't open or force a directory, the move has been made anyway
+        }
+    }
+
+    /**
+     * Calculates a checksum of the beginning of a file, from the first bytes and the last bytes before a
+     * position. It tells if a file that is read while another program appends to it has been rewritten, at
+     * the cost of two small reads however large the file is. Bytes between the two ends aren't checked
+     *
+     * @param file the file
+     * @param end position after the last byte to check
+     * @return the checksum, of the bytes the file has now (fewer if it is shorter than end)
+     * @throws IOException if something happens while reading from file
+     */
+    static long sampleChecksum(File file, long end) throws IOException {
+
+        CRC32 checksum = new CRC32();
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+
+            long tailStart = Math.max(Math.min(end, SAMPLE_SIZE), end - SAMPLE_SIZE); // the ends don't overlap
+            long[][] parts = {{0, Math.min(end, SAMPLE_SIZE)}, {tailStart, end}};
+            ByteBuffer buffer = ByteBuffer.allocate(SAMPLE_SIZE);
+
+            for (long[] part : parts) {
+
+                buffer.clear().limit((int) (part[1] - part[0]));
+                long position = part[0];
+                while (buffer.hasRemaining() && channel.read(buffer, position) > 0) {
+
+                    position = part[0] + buffer.position();
+                }
+                buffer.flip();
+                checksum.update(buffer);
+            }
+        }
+        finally {
+
+            channel.close();
+        }
+
+        return checksum.getValue();
+    }
+}
@@ -0,0 +1,90 @@
+/* This class keeps a file-backed table up to date with a file that another program appends rows to. The file
+ * is checked at a fixed interval on a background thread, which only costs a look at the length and the
+ * modification time of the file while nothing has been appended, and the new rows are read with
+ * Table.refresh(). A file that has been rewritten instead of appended to stops the follower, see getError().
+ * The table is refreshed while holding its lock, so code that reads the table while it is followed should do
+ * that inside synchronized (table) { ... } as well.
+ */
+
+package analogdv;
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class TableFollower implements Closeable {
+
+    /* FIELDS */
+
+    private Table table; // the table that is kept up to date
+    private ScheduledExecutorService executor; // runs the checks
+    private volatile Exception error; // what stopped the follower, null while it is running
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor, starts following right away
+     *
+     * @param table a table that is backed by a file, e.g. VariableLengthTable or StatisticalTable
+     * @param intervalMillis time between two checks, in milliseconds
+     * @throws Exception if intervalMillis < 1
+     */
+    public TableFollower(Table table, long intervalMillis) throws Exception {
+
+        if (intervalMillis < 1) {
+
+            throw new Exception("INTERVAL SHOULD BE AT LEAST 1 MILLISECOND");
+        }
+
+        this.table = table;
+        this.error = null;
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+
+            Thread thread = new Thread(task, "table-follower");
+            thread.setDaemon(true); // doesn't keep the program running
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::check, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Reads appended rows, if there are any. The follower stops if it fails, the reason is kept
+     */
+    private void check() {
+
+        try {
+
+            synchronized (this.table) {
+
+                this.table.refresh();
+            }
+        }
+        catch (Exception e) {
+
+            this.error = e;
+            this.executor.shutdown();
+        }
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Fetches what stopped the follower, e.g. a row that isn't formatted properly
+     *
+     * @return the reason, null if the follower is still running or was closed
+     */
+    public Exception getError() {
+
+        return this.error;
+    }
+
+    /**
+     * Stops following the file, the table is left as it is
+     */
+    public void close() {
+
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,428 @@
+/* This class is a write-ahead log for the file-backed tables. Instead of rewriting the whole rendered table
+ * on every change, each mutation is appended as one compact record to a journal that lives next to the
+ * table file. The table file itself (the snapshot) is only rewritten when the journal gets compacted.
+ *
+ * Journal format, one record per line, fields seperated by tabs:
+ *   S <checksum>      first line, checksum of the snapshot the records should be applied on top of
+ *   A <element>       add
+ *   L <e1> <e2> ...   add list
+ *   R <cellNumber>    remove
+ *   D <from> <to>     remove range
+ *   C <columns>       set columns
+ *   X                 clear
+ *   E                 end of a batch, written after the records of every batch (one change is a batch too)
+ * Records after the last E belong to a batch that was cut off by a crash, they are dropped, so a batch is either
+ * replayed whole or not at all.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.io.*;
+
+class TableJournal {
+
+    /* FIELDS */
+
+    static final int COMPACTION_INTERVAL = 64; // number of records the journal can hold before the snapshot is rewritten
+
+    private static final char SNAPSHOT = 'S'; // the other operations are the ones of TableEditor
+    private static final char END_OF_BATCH = 'E';
+
+    private File snapshot; // the table file
+    private File journal; // file that houses the records, placed next to the table file
+    private long snapshotChecksum; // checksum of the snapshot as it is on disk, if it is known
+    private boolean isChecksumKnown; // false until the snapshot has been read, or after it has been appended to
+    private int pendingRecords; // records written since last compaction
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor
+     *
+     * @param snapshot the file that houses the rendered table
+     */
+    TableJournal(File snapshot) {
+
+        this.snapshot = snapshot;
+        this.journal = new File(snapshot.getPath() + ".journal");
+        this.isChecksumKnown = false; // the snapshot is only read if the checksum is needed
+        this.pendingRecords = 0;
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Calculates the checksum of a snapshot
+     *
+     * @param content bytes of the snapshot
+     * @return the checksum
+     */
+    private static long checksum(byte[] content) {
+
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    /**
+     * Calculates the checksum of a file, reading it through a buffer
+     *
+     * @param file the file
+     * @return the checksum
+     * @throws IOException if something happens while reading the file
+     */
+    static long checksum(File file) throws IOException {
+
+        CheckedInputStream input = new CheckedInputStream(new FileInputStream(file), new CRC32());
+        try {
+
+            byte[] buffer = new byte[1 << 16];
+            while (input.read(buffer) != -1) {
+
+                // the checksum is updated while reading
+            }
+        }
+        finally {
+
+            input.close();
+        }
+
+        return input.getChecksum().getValue();
+    }
+
+    /**
+     * Fetches the checksum of the snapshot, it is calculated from the file the first time it is needed, and
+     * is known without reading after the snapshot has been rewritten by compact(String)
+     *
+     * @return the checksum
+     * @throws IOException if something happens while reading the snapshot
+     */
+    long getSnapshotChecksum() throws IOException {
+
+        if (!this.isChecksumKnown) {
+
+            this.snapshotChecksum = checksum(this.snapshot);
+            this.isChecksumKnown = true;
+        }
+
+        return this.snapshotChecksum;
+    }
+
+    /**
+     * Escapes characters that have a meaning in the journal format
+     *
+     * @param field text that goes into a record
+     * @return escaped text
+     */
+    private static String escape(String field) {
+
+        StringBuilder escaped = new StringBuilder();
+        for (int i = 0; i < field.length(); i++) {
+
+            char c = field.charAt(i);
+            switch (c) {
+
+                case '\\': escaped.append("\\\\"); break;
+                case '\t': escaped.append("\\t"); break;
+                case '\n': escaped.append("\\n"); break;
+                case '\r': escaped.append("\\r"); break;
+                default: escaped.append(c);
+            }
+        }
+
+        return escaped.toString();
+    }
+
+    /**
+     * Reverses escape(String)
+     *
+     * @param field escaped text from a record
+     * @return original text
+     */
+    private static String unescape(String field) {
+
+        StringBuilder unescaped = new StringBuilder();
+        for (int i = 0; i < field.length(); i++) {
+
+            char c = field.charAt(i);
+            if (c == '\\' && i + 1 < field.length()) {
+
+                i++;
+                char next = field.charAt(i);
+                switch (next) {
+
+                    case 't': unescaped.append('\t'); break;
+                    case 'n': unescaped.append('\n'); break;
+                    case 'r': unescaped.append('\r'); break;
+                    default: unescaped.append(next);
+                }
+            }
+            else {
+
+                unescaped.append(c);
+            }
+        }
+
+        return unescaped.toString();
+    }
+
+    /**
+     * Turns a record into one line of the journal
+     *
+     * @param record fields of the record, first field is the operation
+     * @return the escaped line, without line break
+     */
+    private static String toLine(String[] record) {
+
+        StringBuilder line = new StringBuilder(record[0]);
+        for (int i = 1; i < record.length; i++) {
+
+            line.append("\t" + escape(record[i]));
+        }
+
+        return line.toString();
+    }
+
+    /**
+     * Checks that a record read from the journal can be applied
+     *
+     * @param record fields of the record, first field is the operation
+     * @return true if the record is formatted properly
+     */
+    private static boolean isValid(String[] record) {
+
+        if (record[0].length() != 1) {
+
+            return false;
+        }
+
+        try {
+
+            switch (record[0].charAt(0)) {
+
+                case TableEditor.ADD:
+                    return record.length == 2;
+                case TableEditor.ADD_LIST:
+                    return true;
+                case TableEditor.REMOVE:
+                case TableEditor.SET_COLUMNS:
+                    Integer.parseInt(record[1]);
+                    return record.length == 2;
+                case TableEditor.REMOVE_RANGE:
+                    Integer.parseInt(record[1]);
+                    Integer.parseInt(record[2]);
+                    return record.length == 3;
+                case TableEditor.CLEAR:
+                    return record.length == 1;
+                default:
+                    return false;
+            }
+        }
+        catch (RuntimeException e) {
+
+            return false;
+        }
+    }
+
+    /**
+     * Appends records to the journal with one write, the header is written first if the journal is empty. The
+     * records are forced to disk before returning, so a change that has been made survives a power loss
+     *
+     * @param records list of records, first field of every record is the operation
+     * @return number of bytes written
+     * @throws IOException if something happens while writing to file
+     */
+    private long append(ArrayList<String[]> records) throws IOException {
+
+        StringBuilder lines = new StringBuilder();
+        if (this.journal.length() == 0) {
+
+            lines.append(SNAPSHOT + "\t" + this.getSnapshotChecksum() + "\n");
+        }
+
+        for (String[] record : records) {
+
+            lines.append(toLine(record) + "\n");
+        }
+        lines.append(END_OF_BATCH + "\n"); // the batch only counts once this line is on disk
+
+        byte[] content = lines.toString().getBytes(StandardCharsets.UTF_8); // same encoding replay() reads
+        FileOutputStream out = new FileOutputStream(this.journal, true); // append, never truncate
+
+        try {
+
+            out.write(content);
+            out.getChannel().force(false); // a change is only logged once it is on disk
+        }
+        finally {
+
+            out.close();
+        }
+
+        this.pendingRecords += records.size();
+        return content.length;
+    }
+
+    /**
+     * Cuts the journal off after the last complete batch, so that new batches aren't appended to one that
+     * will never be replayed
+     *
+     * @param length number of bytes to keep
+     * @throws IOException if something happens while writing to file
+     */
+    private void truncate(long length) throws IOException {
+
+        FileChannel channel = FileChannel.open(this.journal.toPath(), StandardOpenOption.WRITE);
+        try {
+
+            channel.truncate(length);
+            channel.force(true);
+        }
+        finally {
+
+            channel.close();
+        }
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Checks if a table file has a journal with records in it, without reading either file
+     *
+     * @param snapshot the file that houses the rendered table
+     * @return true if there is a journal that isn't empty
+     */
+    static boolean hasRecords(File snapshot) {
+
+        return new File(snapshot.getPath() + ".journal").length() > 0;
+    }
+
+    /**
+     * Reads all changes that are not yet part of the snapshot. A journal that belongs to an older snapshot
+     * (crash between rewriting the snapshot and removing the journal) is ignored, and so is a last batch
+     * that was cut off while being written, which is removed from the journal
+     *
+     * @return the changes, in the order they were made
+     * @throws IOException if something happens while reading from file or if a record is not formatted properly
+     */
+    TableEditor replay() throws IOException {
+
+        ArrayList<String[]> records = new ArrayList<String[]>();
+        if (!this.journal.exists()) {
+
+            return new TableEditor(records);
+        }
+
+        String content = new String(Files.readAllBytes(this.journal.toPath()), StandardCharsets.UTF_8);
+        String header = SNAPSHOT + "\t" + this.getSnapshotChecksum() + "\n";
+        int end = content.lastIndexOf("\n" + END_OF_BATCH + "\n") + 3; // end of the last complete batch
+
+        if (!content.startsWith(header) || end < header.length()) {
+
+            this.journal.delete(); // new records would otherwise end up after the header of another snapshot
+            return new TableEditor(records);
+        }
+        else if (end < content.length()) {
+
+            content = content.substring(0, end);
+            this.truncate(content.getBytes(StandardCharsets.UTF_8).length);
+        }
+
+        String[] lines = content.split("\n", -1); // last piece is empty, every line is complete
+        for (int i = 1; i < lines.length - 1; i++) {
+
+            if (lines[i].equals(String.valueOf(END_OF_BATCH))) {
+
+                continue;
+            }
+
+            String[] fields = lines[i].split("\t", -1);
+            for (int j = 1; j < fields.length; j++) {
+
+                fields[j] = unescape(fields[j]);
+            }
+
+            if (!isValid(fields)) {
+
+                String errorMessage = Table.generateErrorMessage("JOURNAL RECORD IS NOT FORMATTED PROPERLY", i + 1, this.journal.toString());
+                throw new IOException(errorMessage);
+            }
+            records.add(fields);
+        }
+
+        this.pendingRecords = records.size();
+        return new TableEditor(records);
+    }
+
+    /**
+     * Records a batch of changes
+     *
+     * @param editor the changes, in the order they were made
+     * @return number of bytes written
+     * @throws IOException if something happens while writing to file
+     */
+    long log(TableEditor editor) throws IOException {
+
+        if (editor.size() > 0) {
+
+            return this.append(editor.getRecords());
+        }
+
+        return 0;
+    }
+
+    /**
+     * Checks if there are changes that are only in the journal
+     *
+     * @return true if the journal has records that aren't part of the snapshot
+     */
+    boolean hasPendingRecords() {
+
+        return this.pendingRecords > 0;
+    }
+
+    /**
+     * Lets the journal know that the snapshot has been changed by someone else (rows appended to it), so
+     * its checksum is calculated again the next time it is needed
+     */
+    void snapshotChanged() {
+
+        this.isChecksumKnown = false;
+    }
+
+    /**
+     * Checks if the journal has grown enough to be compacted
+     *
+     * @return true if the snapshot should be rewritten
+     */
+    boolean isCompactionDue() {
+
+        return this.pendingRecords >= COMPACTION_INTERVAL;
+    }
+
+    /**
+     * Rewrites the snapshot and empties the journal. The new snapshot is written to a temporary file which is
+     * forced to disk and then replaces the old one, so a crash never leaves a truncated table file behind
+     *
+     * @param table string representation of the table
+     * @return number of bytes written
+     * @throws IOException if something happens while writing to file
+     */
+    long compact(String table) throws IOException {
+
+        byte[] content = table.getBytes(StandardCharsets.UTF_8);
+        TableFiles.replace(this.snapshot, content); // forced to disk before it replaces the snapshot
+
+        this.snapshotChecksum = checksum(content);
+        this.isChecksumKnown = true;
+        this.journal.delete(); // stale journal would be ignored anyway, since checksum no longer matches
+        this.pendingRecords = 0;
+        return content.length;
+    }
+}
@@ -0,0 +1,34 @@
+/* This interface is what tables report the time of their hot paths to: building the string representation
+ * (layout), reading and parsing files (parse), rewriting files (persist), appending to journals (journal)
+ * and calculating statistics. A table reports to TableMetrics.NONE until it is given another one with
+ * Table.useMetrics(TableMetrics), TableMetricsRecorder keeps counters and latency histograms. Every operation
+ * is also a Flight Recorder event (analogdv.TableOperation), whether a table has metrics or not.
+ */
+
+package analogdv;
+
+public interface TableMetrics {
+
+    /* FIELDS */
+
+    String LAYOUT = "layout"; // string representation of a table is built
+    String PARSE = "parse"; // elements are read from file
+    String PERSIST = "persist"; // table file is rewritten
+    String JOURNAL = "journal"; // changes are appended to the journal of a table file
+    String STATISTIC = "statistic."; // beginning of the name of each statistic, e.g. "statistic.mean"
+
+    TableMetrics NONE = (operation, nanos, elements, bytesRead, bytesWritten) -> {}; // reports to nothing
+
+    /* METHODS */
+
+    /**
+     * Reports that an operation has been done, can be called from several threads at once
+     *
+     * @param operation name of the operation, one of the fields of this interface
+     * @param nanos how long the operation took, in nanoseconds
+     * @param elements number of elements the operation went through
+     * @param bytesRead number of bytes read from file
+     * @param bytesWritten number of bytes written to file
+     */
+    void record(String operation, long nanos, long elements, long bytesRead, long bytesWritten);
+}
@@ -0,0 +1,205 @@
+/* This class keeps the metrics that tables report: for each operation the number of calls, the total time,
+ * the elements gone through, the bytes read and written, and a histogram of how long the calls took. The
+ * histogram has one bucket per power of two nanoseconds, so percentiles are accurate within a factor of two,
+ * which is enough to tell where the time goes. One recorder can be shared by many tables and threads.
+ */
+
+package analogdv;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class TableMetricsRecorder implements TableMetrics {
+
+    /* FIELDS */
+
+    private static final int BUCKETS = 64; // bucket i holds calls that took less than 2^i nanoseconds, and at least 2^(i-1)
+
+    private ConcurrentHashMap<String, OperationMetrics> operations; // name of operation -> its metrics
+
+    /* metrics of one operation */
+    private static class OperationMetrics {
+
+        private LongAdder calls = new LongAdder(); // number of calls
+        private LongAdder nanos = new LongAdder(); // total time of all calls
+        private LongAdder elements = new LongAdder(); // elements gone through by all calls
+        private LongAdder bytesRead = new LongAdder(); // bytes read by all calls
+        private LongAdder bytesWritten = new LongAdder(); // bytes written by all calls
+        private AtomicLongArray histogram = new AtomicLongArray(BUCKETS); // number of calls in each bucket
+    }
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor
+     */
+    public TableMetricsRecorder() {
+
+        this.operations = new ConcurrentHashMap<String, OperationMetrics>();
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Fetches the metrics of an operation
+     *
+     * @param operation name of the operation
+     * @return its metrics, empty ones if it hasn't been recorded
+     */
+    private OperationMetrics get(String operation) {
+
+        OperationMetrics metrics = this.operations.get(operation);
+        return metrics == null ? new OperationMetrics() : metrics;
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Records that an operation has been done
+     *
+     * @param operation name of the operation
+     * @param nanos how long the operation took, in nanoseconds
+     * @param elements number of elements the operation went through
+     * @param bytesRead number of bytes read from file
+     * @param bytesWritten number of bytes written to file
+     */
+    public void record(String operation, long nanos, long elements, long bytesRead, long bytesWritten) {
+
+        OperationMetrics metrics = this.operations.computeIfAbsent(operation, name -> new OperationMetrics());
+        metrics.calls.increment();
+        metrics.nanos.add(nanos);
+        metrics.elements.add(elements);
+        metrics.bytesRead.add(bytesRead);
+        metrics.bytesWritten.add(bytesWritten);
+        metrics.histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos))));
+    }
+
+    /**
+     * Fetches the names of the operations that have been recorded
+     *
+     * @return names in alphabetical order
+     */
+    public Set<String> getOperations() {
+
+        return new TreeSet<String>(this.operations.keySet());
+    }
+
+    /**
+     * Fetches the number of calls of an operation
+     *
+     * @param operation name of the operation
+     * @return number of calls
+     */
+    public long getCalls(String operation) {
+
+        return this.get(operation).calls.sum();
+    }
+
+    /**
+     * Fetches the total time of all calls of an operation
+     *
+     * @param operation name of the operation
+     * @return time in nanoseconds
+     */
+    public long getTotalNanos(String operation) {
+
+        return this.get(operation).nanos.sum();
+    }
+
+    /**
+     * Fetches the number of elements all calls of an operation have gone through
+     *
+     * @param operation name of the operation
+     * @return number of elements
+     */
+    public long getElements(String operation) {
+
+        return this.get(operation).elements.sum();
+    }
+
+    /**
+     * Fetches the number of bytes all calls of an operation have read
+     *
+     * @param operation name of the operation
+     * @return number of bytes
+     */
+    public long getBytesRead(String operation) {
+
+        return this.get(operation).bytesRead.sum();
+    }
+
+    /**
+     * Fetches the number of bytes all calls of an operation have written
+     *
+     * @param operation name of the operation
+     * @return number of bytes
+     */
+    public long getBytesWritten(String operation) {
+
+        return this.get(operation).bytesWritten.sum();
+    }
+
+    /**
+     * Fetches the latency histogram of an operation
+     *
+     * @param operation name of the operation
+     * @return number of calls in each bucket, bucket i holds calls that took less than 2^i nanoseconds
+     */
+    public long[] getHistogram(String operation) {
+
+        AtomicLongArray histogram = this.get(operation).histogram;
+        long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+
+            buckets[i] = histogram.get(i);
+        }
+
+        return buckets;
+    }
+
+    /**
+     * Estimates how long calls of an operation take at most, for a given share of the calls
+     *
+     * @param operation name of the operation
+     * @param percentile share of the calls, between 0 and 100, e.g. 99
+     * @return upper bound of the bucket the percentile is in, in nanoseconds, 0 if there are no calls
+     * @throws IllegalArgumentException if percentile isn't between 0 and 100
+     */
+    public long getPercentile(String operation, double percentile) {
+
+        if (percentile < 0 || percentile > 100) {
+
+            throw new IllegalArgumentException("PERCENTILE SHOULD BE BETWEEN 0 AND 100");
+        }
+
+        long[] buckets = this.getHistogram(operation);
+        long calls = 0;
+        for (long bucket : buckets) {
+
+            calls += bucket;
+        }
+
+        long wanted = (long) Math.ceil(calls * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS && calls > 0; i++) {
+
+            seen += buckets[i];
+            if (seen >= wanted && seen > 0) {
+
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : 1L << i;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Forgets everything that has been recorded
+     */
+    public void reset() {
+
+        this.operations.clear();
+    }
+}
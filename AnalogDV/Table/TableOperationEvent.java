@@ -0,0 +1,36 @@
+/* This class is the Flight Recorder event of the operations reported to TableMetrics. The event is disabled
+ * unless a recording asks for it, and then costs next to nothing, see OperationTimer.
+ */
+
+package analogdv;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("analogdv.TableOperation")
+@Label("Table Operation")
+@Category({"AnalogDV", "Table"})
+@Description("Layout, parsing, persisting, journaling or a statistic of an analogdv table")
+@StackTrace(false)
+class TableOperationEvent extends Event {
+
+    /* FIELDS */
+
+    @Label("Operation")
+    String operation; // name of the operation, see TableMetrics
+
+    @Label("Elements")
+    long elements; // number of elements the operation went through
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead; // number of bytes read from file
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytesWritten; // number of bytes written to file
+}
@@ -0,0 +1,465 @@
+/* This class reads a table file one row at a time, without keeping more than one line in memory. It is what
+ * the file-backed tables use to load their elements, and it can be used on its own to scan a file that is
+ * too large to be opened as a table (see StatisticalSummary.read for statistics over a file).
+ * It keeps track of how many bytes of complete lines it has read, so that reading can go on from there
+ * later on, when rows have been appended to the file.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.io.*;
+
+public class TableReader implements Closeable {
+
+    /* FIELDS */
+
+    private FileInputStream input; // the file
+    private byte[] buffer; // bytes read from the file that haven't been split into lines yet
+    private int position; // next byte of the buffer
+    private int limit; // end of the bytes in the buffer
+    private byte[] line; // bytes of the line being read
+    private int lineLength; // number of bytes in the line being read
+    private boolean onlyCompleteLines; // if true, a last line without line break is left for later
+    private long offset; // number of bytes of complete lines read so far, counting from the start of the file
+    private int completeLines; // number of complete lines read so far, counting from the start of the file
+    private long bytesRead; // position in the file after the last byte read, complete line or not
+    private String path; // where the file is, used in error messages
+    private int lineCounter; // number of lines read so far
+    private int[] elementBounds; // start and end of each element of the row that was read last, in pairs
+    private int numberOfElements; // number of elements of the row that was read last
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor
+     *
+     * @param path where the file is
+     * @throws IOException if the file can't be opened
+     */
+    public TableReader(String path) throws IOException {
+
+        this(path, 0, 0, false);
+    }
+
+    /**
+     * Constructor for reading rows that have been appended to a file that was read before. Only lines that
+     * end with a line break are read, a line that is still being written is read next time
+     *
+     * @param path where the file is
+     * @param offset where reading should go on from, see getOffset()
+     * @param lines number of lines before that, see getCompleteLines()
+     * @throws IOException if the file can't be opened
+     */
+    TableReader(String path, long offset, int lines) throws IOException {
+
+        this(path, offset, lines, true);
+    }
+
+    /**
+     * Constructor that the others use
+     *
+     * @param path where the file is
+     * @param offset where reading should start
+     * @param lines number of lines before that
+     * @param onlyCompleteLines if true, a last line without line break is left for later
+     * @throws IOException if the file can't be opened
+     */
+    private TableReader(String path, long offset, int lines, boolean onlyCompleteLines) throws IOException {
+
+        this.input = new FileInputStream(path);
+        this.input.getChannel().position(offset);
+        this.buffer = new byte[1 << 16];
+        this.position = 0;
+        this.limit = 0;
+        this.line = new byte[256];
+        this.lineLength = 0;
+        this.onlyCompleteLines = onlyCompleteLines;
+        this.offset = offset;
+        this.completeLines = lines;
+        this.bytesRead = offset;
+        this.path = path;
+        this.lineCounter = lines;
+        this.elementBounds = new int[16];
+        this.numberOfElements = 0;
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Reads the next line of the file, lines end with '\n' (a '\r' before it is removed)
+     *
+     * @return the line, null if there are no more lines
+     * @throws IOException if something happens while reading from file
+     */
+    private String readLine() throws IOException {
+
+        this.lineLength = 0;
+        while (true) {
+
+            if (this.position == this.limit) {
+
+                this.limit = Math.max(this.input.read(this.buffer), 0);
+                this.position = 0;
+                this.bytesRead += this.limit;
+                if (this.limit == 0) { // end of file
+
+                    return (this.lineLength == 0 || this.onlyCompleteLines) ? null : this.decodeLine();
+                }
+            }
+
+            int start = this.position;
+            while (this.position < this.limit && this.buffer[this.position] != '\n') {
+
+                this.position++;
+            }
+
+            if (this.lineLength + this.position - start > this.line.length) {
+
+                this.line = Arrays.copyOf(this.line, Math.max(2 * this.line.length, this.lineLength + this.position - start));
+            }
+            System.arraycopy(this.buffer, start, this.line, this.lineLength, this.position - start);
+            this.lineLength += this.position - start;
+
+            if (this.position < this.limit) { // found the line break
+
+                this.position++;
+                this.offset += this.lineLength + 1;
+                this.completeLines++;
+                return this.decodeLine();
+            }
+        }
+    }
+
+    /**
+     * Turns the bytes of the line being read into text
+     *
+     * @return the line
+     */
+    private String decodeLine() {
+
+        int length = this.lineLength;
+        if (length > 0 && this.line[length - 1] == '\r') {
+
+            length--;
+        }
+
+        return new String(this.line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks if a line is a dividing bar
+     *
+     * @param line line of text
+     * @return true if the line only consists of '-'
+     */
+    private static boolean isBar(String line) {
+
+        for (int i = 0; i < line.length(); i++) {
+
+            if (line.charAt(i) != '-') {
+
+                return false;
+            }
+        }
+
+        return line.length() > 0;
+    }
+
+    /**
+     * Checks if a line is a row of empty cells, which is how an empty table looks like
+     *
+     * @param line line of text
+     * @return true if every cell of the line is empty
+     */
+    private static boolean isEmptyRow(String line) {
+
+        boolean inCell = false;
+        for (int i = 0; i < line.length(); i++) {
+
+            char c = line.charAt(i);
+            if (!inCell && c == '[') {
+
+                inCell = true;
+            }
+            else if (inCell && c == ']' && line.charAt(i - 1) != '[') {
+
+                inCell = false;
+            }
+            else if (!inCell || c != ' ') {
+
+                return false;
+            }
+        }
+
+        return line.length() > 0 && !inCell;
+    }
+
+    /**
+     * Finds the elements of a row. Each cell should look like "[ element   ]", with at least one space after
+     * the element, whitespace inside of an element is not allowed. Where the elements start and end is
+     * stored in elementBounds, no strings are made
+     *
+     * @param line line of text
+     * @return false if the line is not formatted properly
+     */
+    private boolean findElements(String line) {
+
+        this.numberOfElements = 0;
+        int i = 0;
+
+        while (i < line.length()) {
+
+            if (line.charAt(i) != '[' || i + 1 >= line.length() || line.charAt(i + 1) != ' ') {
+
+                return false;
+            }
+
+            int start = i + 2;
+            int end = start;
+            while (end < line.length() && line.charAt(end) != ' ' && line.charAt(end) != '[' && line.charAt(end) != ']') {
+
+                end++;
+            }
+
+            int close = end;
+            while (close < line.length() && line.charAt(close) == ' ') {
+
+                close++;
+            }
+
+            if (end == start || close == end || close >= line.length() || line.charAt(close) != ']') {
+
+                return false;
+            }
+
+            if (2 * this.numberOfElements + 2 > this.elementBounds.length) {
+
+                this.elementBounds = Arrays.copyOf(this.elementBounds, 2 * this.elementBounds.length);
+            }
+            this.elementBounds[2 * this.numberOfElements] = start;
+            this.elementBounds[2 * this.numberOfElements + 1] = end;
+            this.numberOfElements++;
+            i = close + 1;
+        }
+
+        return this.numberOfElements > 0;
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Reads the next row of the table, without splitting it into elements. Where the elements are can be
+     * fetched with getElementStart and getElementEnd, for callers that parse the elements where they are
+     *
+     * @return the line of the row, null if there are no more rows
+     * @throws IOException if something happens while reading from file or if file is not formatted properly
+     */
+    String readRowLine() throws IOException {
+
+        String line;
+        while ((line = this.readLine()) != null) {
+
+            this.lineCounter++;
+
+            if (this.lineCounter % 2 != 0) {
+
+                if (!isBar(line)) {
+
+                    String errorMessage = Table.generateErrorMessage("LINE SHOULD BE A DIVIDING BAR", this.lineCounter, this.path);
+                    throw new IOException(errorMessage);
+                }
+            }
+            else if (!isEmptyRow(line)) { // nothing to extract from an empty table
+
+                if (!this.findElements(line)) {
+
+                    String errorMessage = Table.generateErrorMessage("FORMATTING ERROR", this.lineCounter, this.path);
+                    throw new IOException(errorMessage);
+                }
+
+                return line;
+            }
+        }
+
+        this.numberOfElements = 0;
+        return null;
+    }
+
+    /**
+     * Fetches the number of elements of the row that was read last
+     *
+     * @return number of elements
+     */
+    int getNumberOfElements() {
+
+        return this.numberOfElements;
+    }
+
+    /**
+     * Fetches where an element of the row that was read last starts
+     *
+     * @param element number of the element in the row, counting from 0
+     * @return position of the first character of the element in the line
+     */
+    int getElementStart(int element) {
+
+        return this.elementBounds[2 * element];
+    }
+
+    /**
+     * Fetches where an element of the row that was read last ends
+     *
+     * @param element number of the element in the row, counting from 0
+     * @return position after the last character of the element in the line
+     */
+    int getElementEnd(int element) {
+
+        return this.elementBounds[2 * element + 1];
+    }
+
+    /**
+     * Reads the next row of the table
+     *
+     * @return list of elements of the row, null if there are no more rows
+     * @throws IOException if something happens while reading from file or if file is not formatted properly
+     */
+    public ArrayList<String> readRow() throws IOException {
+
+        String line = this.readRowLine();
+        if (line == null) {
+
+            return null;
+        }
+
+        ArrayList<String> elements = new ArrayList<String>(this.numberOfElements);
+        for (int i = 0; i < this.numberOfElements; i++) {
+
+            elements.add(line.substring(this.getElementStart(i), this.getElementEnd(i)));
+        }
+
+        return elements;
+    }
+
+    /**
+     * Counts the elements of a table file without extracting them, a cell counts if it starts with "[ " and
+     * isn't empty. The file is read byte by byte through a buffer, no lines or elements are created
+     *
+     * @param path where the file is
+     * @return number of elements in the file
+     * @throws IOException if something happens while reading from file
+     */
+    public static int countElements(String path) throws IOException {
+
+        InputStream input = new BufferedInputStream(new FileInputStream(path));
+        int count = 0;
+
+        try {
+
+            int twoBack = -1;
+            int oneBack = -1;
+            int current;
+            while ((current = input.read()) != -1) {
+
+                if (twoBack == '[' && oneBack == ' ' && current != ' ') {
+
+                    count++;
+                }
+
+                twoBack = oneBack;
+                oneBack = current;
+            }
+        }
+        finally {
+
+            input.close();
+        }
+
+        return count;
+    }
+
+    /**
+     * Finds where the complete lines of a text end, when the text is written to a file as UTF-8. Used to
+     * know where to go on reading a file that has just been written
+     *
+     * @param text content of the file
+     * @param length number of bytes of the file
+     * @return number of bytes up to and including the last line break
+     */
+    static long endOfCompleteLines(String text, long length) {
+
+        return length - text.substring(text.lastIndexOf('\n') + 1).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Counts the complete lines of a text, i.e the lines that end with a line break
+     *
+     * @param text content of a file
+     * @return number of line breaks
+     */
+    static int countCompleteLines(String text) {
+
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+
+            if (text.charAt(i) == '\n') {
+
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Fetches the number of bytes of complete lines that have been read, counting from the start of the file
+     *
+     * @return position in the file after the last line break that has been read
+     */
+    long getOffset() {
+
+        return this.offset;
+    }
+
+    /**
+     * Fetches the number of bytes that have been read, counting from the start of the file. After the last row
+     * it is the length of the file, as it was when it was read
+     *
+     * @return position in the file after the last byte that has been read
+     */
+    long getBytesRead() {
+
+        return this.bytesRead;
+    }
+
+    /**
+     * Fetches the number of complete lines that have been read, counting from the start of the file
+     *
+     * @return number of lines that end with a line break
+     */
+    int getCompleteLines() {
+
+        return this.completeLines;
+    }
+
+    /**
+     * Fetches the number of the line that was read last, useful for error messages
+     *
+     * @return line number, counting from 1
+     */
+    public int getLineNumber() {
+
+        return this.lineCounter;
+    }
+
+    /**
+     * Closes the file
+     *
+     * @throws IOException if something happens while closing the file
+     */
+    public void close() throws IOException {
+
+        this.input.close();
+    }
+}
@@ -0,0 +1,397 @@
+/* This class keeps file-backed tables open between uses, for programs that work with more table files than
+ * they can keep in memory. Tables are opened by path the first time they are asked for, and the least
+ * recently used ones are closed once the open tables hold more elements than the store allows. Only elements
+ * that have been read into memory count, a table that was opened but hasn't read its file yet holds none.
+ * A table that is closed has its journal printed out to file first, so the next open is a single read of
+ * the file.
+ * A table is only used by one thread at a time, and threads that ask for a table that is being opened wait
+ * for that open instead of opening the file again. Several tables can be used at once by different threads,
+ * and the store itself is never locked while a file is read or written.
+ * A table that can't be printed out to file when it is to be closed stays open with its journal, and the
+ * failure is kept for getFlushFailures() instead of being thrown at whoever happened to trigger the closing.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.io.*;
+
+public class TableStore<T extends Table> implements Closeable {
+
+    /* FIELDS */
+
+    private Opener<T> opener; // opens the table of a path
+    private long maxElements; // open tables are closed once they hold more elements than this, altogether
+    private LinkedHashMap<String, Entry<T>> entries; // path -> entry, least recently used first
+    private long openElements; // number of elements the open tables hold
+    private ExecutorService executor; // runs the actions given to submit()
+    private boolean isClosed; // true once close() has been called
+
+    /* opens the table of a path, e.g. path -> new StatisticalTable(path, 4) */
+    public interface Opener<T extends Table> {
+
+        T open(String path) throws IOException, Exception;
+    }
+
+    /* something done with a table while no other thread uses it */
+    public interface Action<T extends Table, R> {
+
+        R apply(T table) throws IOException, Exception;
+    }
+
+    /* a path and its table */
+    private static class Entry<T extends Table> {
+
+        private final ReentrantLock lock = new ReentrantLock(); // held while the table is opened, used or closed
+        private String path; // where the table is
+        private T table; // the table, null until opened and after being closed
+        private long elements; // number of elements the table held in memory when it was last used
+        private int users; // number of threads that use the table or wait for it
+        private IOException flushFailure; // why the table couldn't be printed out when it was to be closed, null if it could
+    }
+
+    /* METHODS - constructors */
+
+    /**
+     * First constructor, actions given to submit() are run on a pool of daemon threads that grows as needed
+     *
+     * @param maxElements number of elements the open tables may hold altogether
+     * @param opener opens the table of a path
+     * @throws Exception if maxElements < 1
+     */
+    public TableStore(long maxElements, Opener<T> opener) throws Exception {
+
+        this(maxElements, opener, Executors.newCachedThreadPool(task -> {
+
+            Thread thread = new Thread(task, "table-store");
+            thread.setDaemon(true); // doesn't keep the program running
+            return thread;
+        }));
+    }
+
+    /**
+     * Second constructor
+     *
+     * @param maxElements number of elements the open tables may hold altogether
+     * @param opener opens the table of a path
+     * @param executor runs the actions given to submit(), it is shut down when the store is closed
+     * @throws Exception if maxElements < 1
+     */
+    public TableStore(long maxElements, Opener<T> opener, ExecutorService executor) throws Exception {
+
+        if (maxElements < 1) {
+
+            throw new Exception("MAX NUMBER OF ELEMENTS SHOULD BE GREATER THAN 0");
+        }
+
+        this.opener = opener;
+        this.maxElements = maxElements;
+        this.entries = new LinkedHashMap<String, Entry<T>>(16, 0.75f, true); // access order
+        this.openElements = 0;
+        this.executor = executor;
+        this.isClosed = false;
+    }
+
+    /* METHODS - internal */
+
+    /**
+     * Fetches the entry of a path, and counts the calling thread as one of its users
+     *
+     * @param path where the table is
+     * @return the entry, a new one if the path isn't in the store
+     * @throws IOException if the store is closed
+     */
+    private synchronized Entry<T> join(String path) throws IOException {
+
+        if (this.isClosed) {
+
+            throw new IOException("STORE IS CLOSED");
+        }
+
+        Entry<T> entry = this.entries.computeIfAbsent(path, key -> new Entry<T>());
+        entry.path = path;
+        entry.users++;
+        return entry;
+    }
+
+    /**
+     * Stops counting the calling thread as a user of an entry, and brings the number of open elements up to
+     * date. An entry without a table is dropped once no one uses it. Called while holding the lock of the entry
+     *
+     * @param entry the entry
+     * @param elements number of elements the table holds in memory now, see getWeight(Table)
+     */
+    private synchronized void leave(Entry<T> entry, long elements) {
+
+        this.openElements += elements - entry.elements;
+        entry.elements = elements;
+        entry.users--;
+
+        if (entry.table == null && entry.users == 0 && this.entries.get(entry.path) == entry) {
+
+            this.entries.remove(entry.path);
+        }
+    }
+
+    /**
+     * Counts the elements a table holds in memory, a file-backed table that hasn't read its file holds none
+     * even though its size() counts the elements of the file
+     *
+     * @param table the table, null if it isn't open
+     * @return number of elements in memory
+     */
+    private static long getWeight(Table table) {
+
+        return table == null ? 0 : table.getElements().size();
+    }
+
+    /**
+     * Finds the least recently used table that no one uses, if the open tables hold too many elements. Tables
+     * that hold no elements in memory are passed over, closing them wouldn't make room
+     *
+     * @return entry of the table, null if nothing should or can be closed
+     */
+    private synchronized Entry<T> findEvictable() {
+
+        if (this.openElements <= this.maxElements) {
+
+            return null;
+        }
+
+        for (Entry<T> entry : this.entries.values()) {
+
+            if (entry.users == 0 && entry.elements > 0 && entry.flushFailure == null) { // failed ones stay open
+
+                entry.users++; // so that no one else picks it
+                return entry;
+            }
+        }
+
+        return null; // every open table is in use
+    }
+
+    /**
+     * Closes the least recently used tables until the open tables don't hold too many elements, or until only
+     * tables that couldn't be printed out to file are left. Those are kept open, and why they failed is kept
+     * in their entries
+     */
+    private void evictIfNeeded() {
+
+        Entry<T> entry;
+        while ((entry = this.findEvictable()) != null) {
+
+            entry.lock.lock();
+            try {
+
+                if (entry.table != null) {
+
+                    entry.table.flush();
+                    entry.table = null;
+                }
+            }
+            catch (IOException e) {
+
+                synchronized (this) { // read by findEvictable() while holding the store
+
+                    entry.flushFailure = e; // the table still has its changes, in memory and in the journal
+                }
+            }
+            finally {
+
+                this.leave(entry, entry.table == null ? 0 : entry.elements);
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Does something with the table of a path, the table is opened if it isn't already. No other thread uses
+     * the table meanwhile, and if another thread is opening it this one waits for it instead of opening it too
+     *
+     * @param path where the table is
+     * @param action what is done with the table, it should not keep the table after it returns
+     * @return what the action returns
+     * @throws IOException if the store is closed, or if something happens while reading from or writing to file
+     * @throws Exception if the action fails
+     */
+    public <R> R with(String path, Action<T, R> action) throws IOException, Exception {
+
+        Entry<T> entry = this.join(path);
+
+        try {
+
+            entry.lock.lock();
+            try {
+
+                if (entry.table == null) {
+
+                    entry.table = this.opener.open(path);
+                }
+                synchronized (this) {
+
+                    entry.flushFailure = null; // used again, so closing it is tried again
+                }
+                return action.apply(entry.table);
+            }
+            finally {
+
+                this.leave(entry, getWeight(entry.table));
+                entry.lock.unlock();
+            }
+        }
+        finally {
+
+            this.evictIfNeeded(); // also when the action failed, failures of other tables aren't thrown here
+        }
+    }
+
+    /**
+     * Does something with the table of a path on another thread, see with(String, Action)
+     *
+     * @param path where the table is
+     * @param action what is done with the table, it should not keep the table after it returns
+     * @return what the action returns, once it has
+     */
+    public <R> CompletableFuture<R> submit(String path, Action<T, R> action) {
+
+        return CompletableFuture.supplyAsync(() -> {
+
+            try {
+
+                return this.with(path, action);
+            }
+            catch (Exception e) {
+
+                throw new CompletionException(e);
+            }
+        }, this.executor);
+    }
+
+    /**
+     * Prints the journals of all open tables out to file, the tables stay open
+     *
+     * @throws IOException if something happens while writing to file
+     */
+    public void flush() throws IOException {
+
+        ArrayList<String> paths;
+        synchronized (this) {
+
+            paths = new ArrayList<String>(this.entries.keySet());
+        }
+
+        for (String path : paths) {
+
+            try {
+
+                this.with(path, table -> {
+
+                    table.flush();
+                    return null;
+                });
+            }
+            catch (IOException e) {
+
+                throw e;
+            }
+            catch (Exception e) {
+
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Fetches the number of open tables
+     *
+     * @return number of tables in memory
+     */
+    public synchronized int getNumberOfOpenTables() {
+
+        int open = 0;
+        for (Entry<T> entry : this.entries.values()) {
+
+            open += entry.table == null ? 0 : 1;
+        }
+
+        return open;
+    }
+
+    /**
+     * Fetches the tables that couldn't be printed out to file when they were to be closed. They are kept open
+     * until they are used again, then closing them is tried again later on
+     *
+     * @return path -> why printing the table out to file failed
+     */
+    public synchronized HashMap<String, IOException> getFlushFailures() {
+
+        HashMap<String, IOException> failures = new HashMap<String, IOException>();
+        for (Entry<T> entry : this.entries.values()) {
+
+            if (entry.flushFailure != null) {
+
+                failures.put(entry.path, entry.flushFailure);
+            }
+        }
+
+        return failures;
+    }
+
+    /**
+     * Fetches the number of elements the open tables hold in memory
+     *
+     * @return number of elements
+     */
+    public synchronized long getNumberOfOpenElements() {
+
+        return this.openElements;
+    }
+
+    /**
+     * Prints all open tables out to file and closes them, and stops the threads of submit(). Actions that are
+     * running are waited for, new ones fail
+     *
+     * @throws IOException if something happens while writing to file
+     */
+    public void close() throws IOException {
+
+        ArrayList<Entry<T>> open;
+        synchronized (this) {
+
+            this.isClosed = true;
+            open = new ArrayList<Entry<T>>(this.entries.values());
+        }
+        this.executor.shutdown();
+
+        for (Entry<T> entry : open) {
+
+            entry.lock.lock();
+            try {
+
+                if (entry.table != null) {
+
+                    entry.table.flush();
+                    entry.table = null;
+                }
+            }
+            finally {
+
+                entry.lock.unlock();
+            }
+        }
+
+        synchronized (this) {
+
+            this.entries.clear();
+            this.openElements = 0;
+        }
+    }
+}
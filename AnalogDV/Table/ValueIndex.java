@@ -0,0 +1,83 @@
+/* This class keeps track of where each value of a list is, so that finding a value doesn't mean going through
+ * the whole list. Values that are added at the end are indexed right away. Removing values moves every value
+ * after them, so the index is then marked as stale and built again the next time it is asked for something.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+class ValueIndex<V> {
+
+    /* FIELDS */
+
+    private HashMap<V, ArrayList<Integer>> positions; // value -> positions of the value, in increasing order
+    private boolean isStale; // true if positions have changed since the index was built
+    private UnaryOperator<V> key; // turns a value into the key it is indexed by, for values that are equal but not identical
+
+    /* METHODS - constructors */
+
+    /**
+     * Constructor, the index is built the first time it is used
+     *
+     * @param key turns a value into the key it is indexed by
+     */
+    ValueIndex(UnaryOperator<V> key) {
+
+        this.key = key;
+        this.positions = new HashMap<V, ArrayList<Integer>>();
+        this.isStale = true;
+    }
+
+    /* METHODS - interface */
+
+    /**
+     * Indexes a value that was added at the end of the list, does nothing if the index is stale
+     *
+     * @param value the value
+     * @param position position of the value in the list
+     */
+    void add(V value, int position) {
+
+        if (!this.isStale) {
+
+            this.positions.computeIfAbsent(this.key.apply(value), k -> new ArrayList<Integer>(1)).add(position);
+        }
+    }
+
+    /**
+     * Marks the index as stale, used when values have been removed or moved
+     */
+    void invalidate() {
+
+        this.isStale = true;
+        this.positions.clear();
+    }
+
+    /**
+     * Fetches the positions of a value, the index is built first if it is stale
+     *
+     * @param values the indexed list
+     * @param value the value to look for
+     * @return positions of the value in increasing order, empty if it isn't in the list
+     */
+    List<Integer> positionsOf(List<V> values, V value) {
+
+        if (this.isStale) {
+
+            int position = 0;
+            for (V element : values) {
+
+                this.positions.computeIfAbsent(this.key.apply(element), k -> new ArrayList<Integer>(1)).add(position);
+                position++;
+            }
+            this.isStale = false;
+        }
+
+        ArrayList<Integer> found = this.positions.get(this.key.apply(value));
+        return found == null ? Collections.<Integer>emptyList() : Collections.unmodifiableList(found);
+    }
+}
@@ -7,9 +7,6 @@
 
 package analogdv;
 import java.util.ArrayList;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
-import java.util.Collections;
 import java.io.*;
 
 public class VariableLengthTable extends Table {
@@ -17,6 +14,14 @@ public class VariableLengthTable extends Table {
     /* FIELDS */
 
     private File file; // file that houses the table, can also be seen as a file-rep of the table
+    private TableJournal journal; // log of changes that are not yet printed out to file, null until the file is read
+    private boolean loaded; // true once the elements of the file have been read
+    private int unloadedSize; // number of elements in the file, counted without reading them, -1 until counted
+    private long followOffset; // bytes of the file that have been read, rows after them were appended by someone else
+    private int followLines; // lines of the file that have been read
+    private long followLength; // length of the file when it was read
+    private long followModified; // modification time of the file when it was read, unchanged if it still is
+    private long followChecksum; // sample checksum of the bytes that have been read, see TableFiles.sampleChecksum
 
     /* METHODS - constructors */
 
@@ -30,11 +35,13 @@ public class VariableLengthTable extends Table {
      */
     public VariableLengthTable(String path, ArrayList<String> elements, int columns) throws IOException, Exception {
 
-        super(elements, columns);
+        super(columns);
         this.file = new File(path);
         this.file.createNewFile(); // if file does not exist prior to execution
-        this.hasContent(this.file);
-        this.printTable(this.file); // prints out old elements and new elements, newest first
+        this.unloadedSize = -1;
+        this.materialize(); // positions in the journal are positions in the file, so it is replayed before anything is added
+        this.addInFront(elements);
+        this.printTable(); // prints out old elements and new elements, newest first
     }
 
     /**
@@ -50,135 +57,251 @@ public class VariableLengthTable extends Table {
         super(columns);
         this.file = new File(path);
         this.file.createNewFile(); // if file does not exist prior to execution
-        this.hasContent(this.file);
-        this.printTable(this.file); // prints out empty table, or table with the elements in the file
+        this.unloadedSize = -1; // the file is read when its elements are first needed
+    }
+
+    /**
+     * Third constructor, elements are stored as codes of a dictionary, see Table.useDictionary(StringDictionary)
+     *
+     * @param path where the file is
+     * @param columns max number of columns in a row
+     * @param dictionary the dictionary, can be shared between tables
+     * @throws IOException if something happens while reading from file or if file is not formatted properly
+     * @throws Exception if something happens while formatting table
+     */
+    public VariableLengthTable(String path, int columns, StringDictionary dictionary) throws IOException, Exception {
+
+        super(columns);
+        super.useDictionary(dictionary); // before the file is read, so repeated values from the file are only stored once
+        this.file = new File(path);
+        this.file.createNewFile(); // if file does not exist prior to execution
+        this.unloadedSize = -1; // the file is read when its elements are first needed
     }
 
     /* METHODS - internal */
 
     /**
-     * Reads file and extracts all elements, if there are any and if it is properly formatted
+     * Reads file and adds all its elements to the table, if there are any and if it is properly formatted
      *
      * @param f a text-file which represents a table
-     * @throws Exception if something happens while formatting table
      * @throws IOException if something happens while reading from file or if file is not formatted properly
      */
-    private void hasContent(File f) throws IOException, Exception {
+    private void hasContent(File f) throws IOException {
 
-        String line;
-        boolean result = false;
-        BufferedReader br = new BufferedReader(new FileReader(f));
+        if (f.length() > 0) {
 
-        while ((line = br.readLine()) != null) { // result remains false until line doesn't hold an empty value
-
-             result = true;
+            this.extract(new TableReader(f.getPath()));
         }
+    }
+
+    /**
+     * Adds the elements of the file to the table one row at a time, as they are read, so only one row is held
+     * on top of the table (with a dictionary, repeated values are stored once from the start). Remembers how
+     * much of the file has been read. Nothing is logged, since the elements are already in the file
+     *
+     * @param reader reader of the file, it is closed afterwards
+     * @return number of elements that were added
+     * @throws IOException if something happens while reading from file or if file is not formatted properly
+     */
+    private int extract(TableReader reader) throws IOException {
+
+        ArrayList<String> row;
+        int count = 0;
+        int firstCell = super.size();
+        OperationTimer timer = super.startTimer(TableMetrics.PARSE);
+        long firstByte = reader.getBytesRead();
+
+        try {
 
-        br.close();
+            while ((row = reader.readRow()) != null) {
 
-        if (result) {
+                super.add(row);
+                count += row.size();
+            }
+        }
+        catch (Exception e) {
 
-            this.extract(f);
+            this.removeAdded(firstCell, count); // the table is left as it was
+            throw e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
         }
+        finally {
+
+            reader.close();
+        }
+
+        this.followOffset = reader.getOffset();
+        this.followLines = reader.getCompleteLines();
+        this.followLength = reader.getBytesRead();
+        this.rememberFollowed();
+        timer.stop(count, reader.getBytesRead() - firstByte, 0);
+        return count;
     }
 
     /**
-     * Extracts all the elements of the table
+     * Puts elements in front of the elements of the file. Nothing is logged, the table is printed out to file
+     * right after
      *
-     * @param f a text-file which represents a table
-     * @throws Exception if something happens while formatting table
-     * @throws IOException if something happens while reading from file or if file is not formatted properly
+     * @param elements new elements
+     * @throws IOException if something happens while formatting table
      */
-    private void extract(File f) throws IOException, Exception {
+    private void addInFront(ArrayList<String> elements) throws IOException {
 
-        String line;
-        BufferedReader br = new BufferedReader(new FileReader(f));
-        Pattern lineFormat = Pattern.compile("(\\[\\s\\w+\\s+\\])+");
-        Pattern barFormat = Pattern.compile("\\-+");
-        Matcher lineMatcher;
-        Matcher barMatcher;
-        int lineCounter = 0;
+        if (elements.isEmpty()) {
 
-        while ((line = br.readLine()) != null) {
+            return;
+        }
 
-            lineCounter++;
+        ArrayList<String> all = new ArrayList<String>(elements);
+        all.addAll(super.getElements());
+        TableEditor editor = new TableEditor();
+        editor.clear();
+        editor.add(all);
+        try {
 
-            if (lineCounter % 2 != 0) {
+            super.commit(editor);
+        }
+        catch (Exception e) {
 
-                barMatcher = barFormat.matcher(line);
+            throw new IOException(e.getMessage(), e);
+        }
+    }
 
-                if (!barMatcher.matches()) {
+    /**
+     * Prints table out to file, all changes in the journal become part of the file
+     *
+     * @throws IOException if something happens while writing to file
+     */
+    private void printTable() throws IOException {
 
-                   String errorMessage = this.generateErrorMessage("LINE SHOULD BE A DIVIDING BAR", lineCounter, this.file.toString());
-                   throw new IOException(errorMessage);
-                }
-            }
-            else {
+        String table = super.getTable();
+        OperationTimer timer = super.startTimer(TableMetrics.PERSIST);
+        this.followLength = this.journal.compact(table);
+        timer.stop(super.size(), 0, this.followLength);
+        this.followOffset = TableReader.endOfCompleteLines(table, this.followLength);
+        this.followLines = TableReader.countCompleteLines(table);
+        this.rememberFollowed();
+    }
 
-                lineMatcher = lineFormat.matcher(line);
+    /**
+     * Remembers the modification time of the file and a checksum of the part that has been read, so that
+     * refresh() can tell rows that were appended from a file that was rewritten
+     *
+     * @throws IOException if something happens while reading from file
+     */
+    private void rememberFollowed() throws IOException {
 
-                if (lineMatcher.matches()) {
+        this.followModified = this.file.lastModified();
+        this.followChecksum = TableFiles.sampleChecksum(this.file, this.followOffset);
+    }
 
-                    ArrayList<String> elements = this.splitByElement(line);
-                    super.add(elements);
-                }
-                else {
+    /**
+     * Lets go of the elements that have been read, so that the file is read again the next time they are
+     * needed. Used after the file has been changed without the table
+     *
+     * @throws IOException if something happens while formatting table
+     */
+    private void unload() throws IOException {
+
+        if (this.loaded) {
+
+            TableEditor editor = new TableEditor();
+            editor.clear();
+            try {
 
-                    String errorMessage = this.generateErrorMessage("FORMATTING ERROR", lineCounter, this.file.toString());
-                    throw new IOException(errorMessage);
-                }
+                super.commit(editor); // the file already has the elements, so nothing is logged
             }
+            catch (Exception e) {
+
+                throw new IOException(e.getMessage(), e);
+            }
+            this.loaded = false;
+            this.journal = null;
         }
 
-        br.close();
+        this.unloadedSize = -1;
     }
 
     /**
-     * Generates error messages
+     * Prints table out to file if the journal has grown enough
      *
-     * @param message is what implementer wants to convey to user
-     * @param line is where in the text-file it was found
-     * @param file is the path to the file the error was found in
-     * @return the full error message
+     * @throws IOException if something happens while writing to file
      */
-    private String generateErrorMessage(String message, int line, String file) {
+    private void compactIfDue() throws IOException {
 
-        StringBuilder errorMessage = new StringBuilder();
-        errorMessage.append("\nLine: " + line);
-        errorMessage.append("\nFile: " + file);
-        errorMessage.append("\nMessage: " + message);
+        if (this.journal.isCompactionDue()) {
 
-        return errorMessage.toString();
+            this.printTable();
+        }
     }
 
     /**
-     * Splits string read from file into list of elements to be added to table
+     * Reads the elements of the file, and the changes in its journal, the first time they are needed. Until
+     * then the table hasn't read or written anything, so opening a table to look at its size costs next to nothing
      *
-     * @param line line of text
-     * @return list of elements extracted from file
+     * @throws IOException if something happens while reading from file or if file is not formatted properly
      */
-    private ArrayList<String> splitByElement(String line) {
+    protected void materialize() throws IOException {
+
+        if (this.loaded || this.file == null) { // file is null while Table sets itself up
 
-        ArrayList<String> elementList = new ArrayList<String>();
-        String line2 = line.substring(2, line.length() - 1).replaceAll("\\s+", ""); // removes 1st and last bracket and whitespaces
-        String[] elementArray = line2.split("\\]\\["); // removes all brackets that are left
-        Collections.addAll(elementList, elementArray);
+            return;
+        }
 
-        return elementList;
+        TableJournal journal = new TableJournal(this.file);
+        this.loaded = true; // rows are added while they are read, so the table shouldn't read the file again meanwhile
+        try {
+
+            this.hasContent(this.file);
+            TableEditor changes = journal.replay(); // changes that didn't make it into the file yet
+            super.commit(changes);
+            this.journal = journal;
+        }
+        catch (Exception e) {
+
+            this.removeAdded(0, super.size()); // the journal couldn't be applied, the file is read again next time
+            this.loaded = false;
+            throw e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
+        }
     }
 
     /**
-     * Prints table out to file
+     * Removes elements that were added while reading a file that turned out not to be readable
      *
-     * @param f text-file that table is going to get printed to
-     * @throws IOException if something happens while reading from file
+     * @param firstCell first element that was added
+     * @param count number of elements that were added
      */
-    private void printTable(File f) throws IOException {
+    private void removeAdded(int firstCell, int count) {
 
-        String table = super.getTable();
-        BufferedWriter bw = new BufferedWriter(new FileWriter(f)); // writing mechanism to file
-        bw.write(table);
-        bw.close();
+        if (count > 0) {
+
+            TableEditor editor = new TableEditor();
+            editor.removeRange(firstCell, firstCell + count);
+            try {
+
+                super.commit(editor); // not logged, they were never in the journal
+            }
+            catch (Exception e) {
+
+                // removing elements that are there can't fail
+            }
+        }
+    }
+
+    /**
+     * Applies queued changes to the table and logs all of them with one write to the journal
+     *
+     * @param editor queued changes
+     * @throws Exception if something happens while formatting table
+     * @throws IOException if something happens while writing to file
+     */
+    protected void commit(TableEditor editor) throws IOException, Exception {
+
+        this.materialize();
+        super.commit(editor);
+        OperationTimer timer = super.startTimer(TableMetrics.JOURNAL);
+        long bytesWritten = this.journal.log(editor);
+        timer.stop(editor.size(), 0, bytesWritten);
+        this.compactIfDue();
     }
 
     /* METHODS - interface */
@@ -192,8 +315,9 @@ public class VariableLengthTable extends Table {
      */
     public void add(String element) throws IOException, Exception {
 
-        super.add(element);
-        this.printTable(this.file);
+        TableEditor editor = new TableEditor();
+        editor.add(element);
+        this.commit(editor);
     }
 
     /**
@@ -205,8 +329,9 @@ public class VariableLengthTable extends Table {
      */
     public void add(ArrayList<String> elements) throws IOException, Exception {
 
-        super.add(elements);
-        this.printTable(this.file);
+        TableEditor editor = new TableEditor();
+        editor.add(elements);
+        this.commit(editor);
     }
 
     /**
@@ -218,8 +343,9 @@ public class VariableLengthTable extends Table {
      */
     public void remove(int cellNumber) throws IOException, Exception {
 
-        super.remove(cellNumber);
-        this.printTable(this.file);
+        TableEditor editor = new TableEditor();
+        editor.remove(cellNumber);
+        this.commit(editor);
      }
 
     /**
@@ -231,8 +357,9 @@ public class VariableLengthTable extends Table {
      */
     public void setColumns(int columns) throws IOException, Exception {
 
-        super.setColumns(columns);
-        this.printTable(this.file);
+        TableEditor editor = new TableEditor();
+        editor.setColumns(columns);
+        this.commit(editor);
     }
 
     /**
@@ -255,8 +382,41 @@ public class VariableLengthTable extends Table {
      */
     public void merge(Table otherTable) throws IOException, Exception {
 
-        super.merge(otherTable);
-        this.printTable(this.file);
+        super.merge(otherTable); // new elements are logged by add(ArrayList<String>)
+    }
+
+    /**
+     * Adds the elements of another table file to this table, without loading either table. The other file is
+     * streamed into this one, whose rows are copied as they are unless the new elements need wider cells, so
+     * memory use doesn't grow with the size of the files. Like merge(Table), nothing is added if both files have
+     * the same content. A table that has been read is read again from file the next time it is used
+     *
+     * @param path where the other table file is
+     * @return number of elements that were added
+     * @throws IOException if something happens while reading from or writing to file, or if a file is not
+     * formatted properly
+     * @throws Exception if the other table file has changes that aren't printed out to it yet
+     */
+    public int mergeFile(String path) throws IOException, Exception {
+
+        File other = new File(path);
+        if (TableJournal.hasRecords(other)) {
+
+            throw new Exception("OTHER TABLE HAS CHANGES THAT ARE NOT PRINTED OUT TO FILE, COMPACT IT BEFORE MERGING");
+        }
+
+        this.flush(); // the elements are added to the file, so it should have every change
+        OperationTimer timer = super.startTimer(TableMetrics.PERSIST);
+        TableFileMerger merger = new TableFileMerger(this.file, other, super.getColumns(), null);
+        long added = merger.merge();
+        timer.stop(added, merger.getBytesRead(), merger.getBytesWritten());
+
+        if (added > 0) {
+
+            this.unload();
+        }
+
+        return (int) added;
     }
 
     /**
@@ -267,20 +427,137 @@ public class VariableLengthTable extends Table {
      */
     public void clear() throws IOException, Exception {
 
-        super.clear();
-        this.printTable(this.file);
+        TableEditor editor = new TableEditor();
+        editor.clear();
+        this.commit(editor);
+    }
+
+    /**
+     * Reads the rows that someone else has appended to the file since it was read, only the new part of the
+     * file is read and parsed. Meant for tables that follow a file another program writes to, see TableFollower.
+     * A table that has changes which are only in the journal can't be refreshed, since the file and the journal
+     * would no longer agree, and changes printed out to file overwrite rows that haven't been read yet.
+     * A file that is shorter than before, or whose first and last bytes before the appended rows have changed,
+     * has been rewritten rather than appended to
+     *
+     * @return number of elements that were added to the table
+     * @throws IOException if something happens while reading from file, if file is not formatted properly, or if
+     * it has been rewritten by someone else
+     * @throws Exception if the table has changes that aren't printed out to file yet
+     */
+    public int refresh() throws IOException, Exception {
+
+        this.materialize();
+        if (this.journal.hasPendingRecords()) {
+
+            throw new Exception("TABLE HAS CHANGES THAT ARE NOT PRINTED OUT TO FILE, COMPACT IT BEFORE READING APPENDED ROWS");
+        }
+
+        long length = this.file.length();
+        long modified = this.file.lastModified();
+        if (length == this.followLength && modified == this.followModified) { // the usual case, nothing to read
+
+            return 0;
+        }
+        else if (length < this.followLength || TableFiles.sampleChecksum(this.file, this.followOffset) != this.followChecksum) {
+
+            throw new IOException("FILE HAS BEEN REWRITTEN SINCE IT WAS READ, OPEN IT AGAIN");
+        }
+        else if (length == this.followLength) {
+
+            this.followModified = modified; // written to without changing what has been read
+            return 0;
+        }
+
+        TableReader reader = new TableReader(this.file.getPath(), this.followOffset, this.followLines);
+        int added = this.extract(reader); // already in the file, so nothing is logged
+        this.journal.snapshotChanged();
+
+        return added;
+    }
+
+    /**
+     * Prints all changes that are only in the journal out to the table file
+     *
+     * @throws IOException if something happens while writing to file
+     */
+    public void compact() throws IOException {
+
+        if (!this.loaded && !TableJournal.hasRecords(this.file)) { // file is already up to date
+
+            return;
+        }
+
+        this.materialize();
+        this.printTable();
+    }
+
+    /**
+     * Prints the changes that are only in the journal out to the table file, unlike compact() nothing is
+     * written if there are none
+     *
+     * @throws IOException if something happens while writing to file
+     */
+    public void flush() throws IOException {
+
+        if (this.loaded ? this.journal.hasPendingRecords() : TableJournal.hasRecords(this.file)) {
+
+            this.compact();
+        }
     }
 
     /* METHODS - other */
 
     /**
-     * Fetches size of the table, i.e number of elements the table contains
+     * Fetches the max number of columns on each row. If the file hasn't been read but its journal has changes,
+     * they are read first, since one of them may change the number of columns
+     *
+     * @return number of columns on each row
+     * @throws UncheckedIOException if something happens while reading from file
+     */
+    public int getColumns() {
+
+        if (!this.loaded && this.file != null && TableJournal.hasRecords(this.file)) { // file is null while Table sets itself up
+
+            try {
+
+                this.materialize();
+            }
+            catch (IOException e) {
+
+                throw new UncheckedIOException(e.getMessage(), e);
+            }
+        }
+
+        return super.getColumns();
+    }
+
+    /**
+     * Fetches size of the table, i.e number of elements the table contains. If the file hasn't been read and
+     * has no changes waiting in the journal, the elements are counted in the file instead of read
      *
      * @return number of elements
+     * @throws UncheckedIOException if something happens while reading from file
      */
     public int size() {
 
-        return super.size();
+        if (this.loaded || TableJournal.hasRecords(this.file)) {
+
+            return super.size();
+        }
+        else if (this.unloadedSize == -1) {
+
+            try {
+
+                this.unloadedSize = TableReader.countElements(this.file.getPath());
+            }
+            catch (IOException e) {
+
+                throw new UncheckedIOException(e.getMessage(), e);
+            }
+        }
+
+        return this.unloadedSize;
     }
 
     /**
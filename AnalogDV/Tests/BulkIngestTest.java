@@ -0,0 +1,87 @@
+/* Tests of adding numbers to a statistical table without turning them into strings first: the table should
+ * hold, print out and answer what it would after the same numbers had been added as strings.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.DoubleStream;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkIngestTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    /**
+     * Makes an empty statistical table
+     *
+     * @param name name of the file
+     * @param columns number of columns
+     * @return the table
+     * @throws Exception if the table can't be written
+     */
+    private StatisticalTable makeTable(String name, int columns) throws Exception {
+
+        return new StatisticalTable(this.directory.resolve(name).toString(), columns);
+    }
+
+    @Test
+    void numbersMatchStrings() throws Exception {
+
+        double[] values = {1, -2.5, 0.1, 1e-7, 12345678, -0.0, 3};
+        ArrayList<String> strings = new ArrayList<String>();
+        for (double value : values) {
+
+            strings.add(Double.toString(value));
+        }
+
+        StatisticalTable numbers = this.makeTable("numbers", 2);
+        StatisticalTable text = this.makeTable("text", 2);
+        numbers.add(values);
+        text.add(strings);
+
+        assertEquals(text.getElements(), numbers.getElements());
+        assertEquals(text.getTable(), numbers.getTable());
+        assertEquals(text.getMeanValue(), numbers.getMeanValue());
+        assertEquals(text.getStandardDeviation(0), numbers.getStandardDeviation(0));
+        assertArrayEquals(text.linearRegression(1, 2), numbers.linearRegression(1, 2));
+    }
+
+    @Test
+    void streamAndRowsAreWrittenToFile() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        StatisticalTable table = new StatisticalTable(path, 3);
+        table.add(DoubleStream.iterate(0, x -> x + 0.5).limit(6));
+        table.addRows(new double[][] {{7, 8, 9}, {10, 11, 12}});
+
+        assertEquals(12, table.size());
+        assertEquals(List.of(4), table.find(2));
+        assertEquals(List.of(11), table.find(12));
+
+        StatisticalTable reopened = new StatisticalTable(path, 3);
+        assertEquals(12, reopened.size());
+        assertEquals(table.getElements(), reopened.getElements());
+        assertEquals(table.getMeanValue(), reopened.getMeanValue());
+    }
+
+    @Test
+    void badRowsAddNothing() throws Exception {
+
+        StatisticalTable table = this.makeTable("table", 2);
+        table.addRows(new double[][] {{1, 2}});
+        assertThrows(Exception.class, () -> table.addRows(new double[][] {{3, 4}, {5}}));
+        assertEquals(2, table.size());
+
+        table.add(3);
+        assertThrows(Exception.class, () -> table.addRows(new double[][] {{4, 5}})); // last row isn't full
+        assertEquals(3, table.size());
+        table.add(4);
+        table.addRows(new double[0][]);
+        assertEquals(List.of("1.0", "2.0", "3.0", "4.0"), table.getElements());
+    }
+}
@@ -0,0 +1,188 @@
+/* Tests of ChunkedList: whatever happens to its chunks, the list should hold what an ArrayList given the same
+ * changes holds.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedListTest {
+
+    /**
+     * Makes a list of numbers, in order
+     *
+     * @param size number of elements
+     * @return the list
+     */
+    private static ArrayList<Integer> numbers(int size) {
+
+        ArrayList<Integer> numbers = new ArrayList<Integer>();
+        for (int i = 0; i < size; i++) {
+
+            numbers.add(i);
+        }
+
+        return numbers;
+    }
+
+    @Test
+    void insertsInOneChunkSplitIt() {
+
+        ChunkedList<Integer> list = new ChunkedList<Integer>(numbers(1024));
+        ArrayList<Integer> expected = numbers(1024);
+        for (int i = 0; i < 3000; i++) { // one chunk grows past twice the chunk size, more than once
+
+            list.add(10, -i);
+            expected.add(10, -i);
+        }
+
+        assertEquals(expected, list);
+        assertEquals(expected.get(2500), list.get(2500));
+        assertEquals(expected.get(0), list.get(0)); // looking back after looking far ahead
+    }
+
+    @Test
+    void removeRangeAcrossChunks() {
+
+        ChunkedList<Integer> list = new ChunkedList<Integer>(numbers(5000));
+        ArrayList<Integer> expected = numbers(5000);
+
+        list.removeRange(1000, 3100); // end of one chunk, a whole chunk and the start of another
+        expected.subList(1000, 3100).clear();
+        assertEquals(expected, list);
+
+        list.removeRange(0, 1024); // exactly the first chunk
+        expected.subList(0, 1024).clear();
+        assertEquals(expected, list);
+
+        list.removeRange(list.size() - 5, list.size());
+        expected.subList(expected.size() - 5, expected.size()).clear();
+        assertEquals(expected, list);
+
+        list.removeRange(0, list.size());
+        assertTrue(list.isEmpty());
+        list.add(7);
+        assertEquals(List.of(7), list);
+    }
+
+    @Test
+    void removingEmptiesAndMergesChunks() {
+
+        ChunkedList<Integer> list = new ChunkedList<Integer>(numbers(3000));
+        ArrayList<Integer> expected = numbers(3000);
+        for (int i = 0; i < 1500; i++) {
+
+            list.remove(1000);
+            expected.remove(1000);
+        }
+
+        assertEquals(expected, list);
+        assertEquals(expected.get(1000), list.get(1000));
+        assertEquals(expected.get(expected.size() - 1), list.get(list.size() - 1));
+    }
+
+    @Test
+    void randomChangesMatchArrayList() {
+
+        Random random = new Random(28);
+        ChunkedList<Integer> list = new ChunkedList<Integer>();
+        ArrayList<Integer> expected = new ArrayList<Integer>();
+
+        for (int i = 0; i < 20000; i++) {
+
+            int operation = random.nextInt(10);
+            if (operation < 5 || expected.isEmpty()) {
+
+                int index = random.nextInt(expected.size() + 1);
+                list.add(index, i);
+                expected.add(index, i);
+            }
+            else if (operation < 7) {
+
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.remove(index));
+            }
+            else if (operation < 8) {
+
+                int from = random.nextInt(expected.size());
+                int to = Math.min(expected.size(), from + random.nextInt(3000));
+                list.removeRange(from, to);
+                expected.subList(from, to).clear();
+            }
+            else {
+
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), list.get(index));
+                assertEquals(expected.set(index, -i), list.set(index, -i));
+            }
+        }
+
+        assertEquals(expected, list);
+        assertEquals(expected.hashCode(), list.hashCode());
+    }
+
+    @Test
+    void iteratorStartsAnywhere() {
+
+        ChunkedList<Integer> list = new ChunkedList<Integer>(numbers(3000));
+        Iterator<Integer> fromMiddle = list.iterator(2047);
+        assertEquals(2047, fromMiddle.next());
+        assertEquals(2048, fromMiddle.next());
+        assertFalse(list.iterator(3000).hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.iterator(3001));
+    }
+
+    @Test
+    void iteratorFailsAfterChange() {
+
+        ChunkedList<Integer> list = new ChunkedList<Integer>(numbers(10));
+        Iterator<Integer> iterator = list.iterator(5);
+        iterator.next();
+        list.remove(0);
+        assertThrows(ConcurrentModificationException.class, () -> iterator.next());
+
+        Iterator<Integer> afterSet = list.iterator();
+        list.set(0, 100); // not a change of the structure, like with ArrayList
+        assertEquals(100, afterSet.next());
+    }
+
+    @Test
+    void threadsCanReadAtOnce() throws Exception {
+
+        ChunkedList<Integer> list = new ChunkedList<Integer>(numbers(100000));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        ArrayList<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+
+        for (int t = 0; t < 4; t++) {
+
+            final int seed = t;
+            results.add(pool.submit(() -> {
+
+                Random random = new Random(seed);
+                for (int i = 0; i < 200000; i++) {
+
+                    int index = random.nextInt(100000);
+                    if (list.get(index) != index) {
+
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+
+        for (Future<Boolean> result : results) {
+
+            assertTrue(result.get());
+        }
+        pool.shutdown();
+    }
+}
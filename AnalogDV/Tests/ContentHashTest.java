@@ -0,0 +1,87 @@
+/* Tests of the content hash and the row hashes: they should follow every change of the table, and equals,
+ * merge and mergeRows, which look at them first, should answer what comparing the elements would answer.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentHashTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    /**
+     * Makes a table with 2 columns
+     *
+     * @param name name of the file
+     * @param elements elements of the table
+     * @return the table
+     * @throws Exception if the table can't be written
+     */
+    private VariableLengthTable makeTable(String name, String... elements) throws Exception {
+
+        String path = this.directory.resolve(name).toString();
+        return new VariableLengthTable(path, new ArrayList<String>(Arrays.asList(elements)), 2);
+    }
+
+    @Test
+    void hashFollowsChanges() throws Exception {
+
+        VariableLengthTable table = this.makeTable("table", "a", "b", "c");
+        VariableLengthTable shuffled = this.makeTable("shuffled", "c", "a", "b");
+        long hash = table.getContentHash();
+        assertEquals(hash, shuffled.getContentHash()); // order doesn't matter
+
+        table.add("d");
+        assertNotEquals(hash, table.getContentHash());
+        table.remove(3);
+        assertEquals(hash, table.getContentHash());
+
+        table.clear();
+        assertEquals(this.makeTable("empty").getContentHash(), table.getContentHash());
+        assertEquals(shuffled.getContentHash(), new VariableLengthTable(this.directory.resolve("shuffled").toString(), 2).getContentHash());
+    }
+
+    @Test
+    void equalsComparesElementsInOrder() throws Exception {
+
+        VariableLengthTable table = this.makeTable("table", "a", "b", "c");
+        assertTrue(table.equals(this.makeTable("same", "a", "b", "c")));
+        assertFalse(table.equals(this.makeTable("shuffled", "c", "a", "b"))); // same hash, other order
+        assertFalse(table.equals(this.makeTable("other", "a", "b", "x")));
+        assertFalse(table.equals(this.makeTable("longer", "a", "b", "c", "c")));
+    }
+
+    @Test
+    void mergeSkipsEqualTable() throws Exception {
+
+        VariableLengthTable table = this.makeTable("table", "a", "b");
+        table.merge(this.makeTable("same", "a", "b"));
+        assertEquals(List.of("a", "b"), table.getElements());
+
+        table.merge(this.makeTable("other", "b", "a"));
+        assertEquals(List.of("a", "b", "b", "a"), table.getElements());
+    }
+
+    @Test
+    void mergeRowsAddsOnlyNewRows() throws Exception {
+
+        VariableLengthTable table = this.makeTable("table", "a", "b", "c", "d");
+        VariableLengthTable other = this.makeTable("other", "c", "d", "e", "f", "e", "f", "b", "a", "g");
+        table.mergeRows(other);
+        assertEquals(List.of("a", "b", "c", "d", "e", "f", "b", "a", "g"), table.getElements());
+
+        table.mergeRows(other); // nothing new
+        assertEquals(9, table.size());
+
+        table.removeRow(2); // the row hashes after it have to be made again
+        table.mergeRows(other);
+        assertEquals(List.of("a", "b", "c", "d", "b", "a", "g", "e", "f"), table.getElements());
+    }
+}
@@ -0,0 +1,106 @@
+/* Tests of delimited files (CSV, TSV): quoted fields should be read and written so that a table exported and
+ * imported again holds the same elements, and lines that can't be read should be reported with their number.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DelimitedFileTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    /**
+     * Splits a line of a CSV file
+     *
+     * @param line the line
+     * @return the fields, null if a quoted field isn't closed
+     */
+    private static List<String> split(String line) {
+
+        ArrayList<String> fields = new ArrayList<String>();
+        return DelimitedCodec.split(line, ',', fields) ? fields : null;
+    }
+
+    /**
+     * Makes an empty table
+     *
+     * @param name name of the file
+     * @return the table
+     * @throws Exception if the table can't be written
+     */
+    private VariableLengthTable makeTable(String name) throws Exception {
+
+        return new VariableLengthTable(this.directory.resolve(name).toString(), 1);
+    }
+
+    @Test
+    void quotedFieldsAreSplit() {
+
+        assertEquals(List.of("a", "b", "c"), split("a,b,c"));
+        assertEquals(List.of("a,b", "c"), split("\"a,b\",c"));
+        assertEquals(List.of("say \"hi\"", ""), split("\"say \"\"hi\"\"\","));
+        assertEquals(List.of("", "", ""), split(",,"));
+        assertEquals(List.of(""), split(""));
+        assertEquals(List.of("\"\"x"), split("\"\"\"\"\"\"x")); // "" + "" then the rest of the field
+        assertNull(split("\"open,b"));
+        assertNull(split("a,\"ends with quote\"\""));
+    }
+
+    @Test
+    void exportedTableIsImportedAgain() throws Exception {
+
+        ArrayList<String> elements = new ArrayList<String>(Arrays.asList("plain", "with,comma", "\"quoted\"", "a\"b", "x;y", "last"));
+        VariableLengthTable table = new VariableLengthTable(this.directory.resolve("table").toString(), elements, 2);
+        String csv = this.directory.resolve("table.csv").toString();
+        String tsv = this.directory.resolve("table.tsv").toString();
+        table.exportDelimited(csv, ',');
+        table.exportDelimited(tsv, '\t');
+
+        assertEquals("plain,\"with,comma\"\n\"\"\"quoted\"\"\",\"a\"\"b\"\nx;y,last\n", Files.readString(Path.of(csv)));
+        VariableLengthTable imported = this.makeTable("imported");
+        imported.importDelimited(csv, ',', 2);
+        assertEquals(2, imported.getColumns());
+        assertEquals(elements, imported.getElements());
+
+        VariableLengthTable importedTabs = this.makeTable("importedTabs");
+        importedTabs.importDelimited(tsv, '\t', 2);
+        assertEquals(elements, importedTabs.getElements());
+    }
+
+    @Test
+    void partialLastRowIsExported() throws Exception {
+
+        ArrayList<String> elements = new ArrayList<String>(Arrays.asList("a", "b", "c"));
+        VariableLengthTable table = new VariableLengthTable(this.directory.resolve("table").toString(), elements, 2);
+        String csv = this.directory.resolve("table.csv").toString();
+        table.exportDelimited(csv, ',');
+
+        assertEquals("a,b\nc\n", Files.readString(Path.of(csv)));
+    }
+
+    @Test
+    void badLinesAreReported() throws Exception {
+
+        Path csv = this.directory.resolve("bad.csv");
+        String[] bad = {"a,b\n\"c,d\n", "a,b\nc,d,e\n", "a,b\n\nc,has space\n", "a,b\nc,[d]\n", "a,b\nc,\n"};
+        int[] lines = {2, 2, 3, 2, 2};
+
+        for (int i = 0; i < bad.length; i++) {
+
+            Files.writeString(csv, bad[i]);
+            VariableLengthTable table = this.makeTable("table" + i);
+            IOException error = assertThrows(IOException.class, () -> table.importDelimited(csv.toString(), ',', 2));
+            assertTrue(error.getMessage().contains("Line: " + lines[i] + "\n"), error.getMessage());
+            assertEquals(0, table.size()); // all lines are in the same batch
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/* Tests of StringDictionary and DictionaryEncodedList: a list of codes should hold what a list of strings
+ * holds, and a dictionary shared by several tables and threads should give every string one code.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DictionaryEncodedListTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    @Test
+    void repeatedStringsShareCode() {
+
+        StringDictionary dictionary = new StringDictionary();
+        DictionaryEncodedList list = new DictionaryEncodedList(dictionary, Arrays.asList("red", "blue", "red", "red"));
+
+        assertEquals(List.of("red", "blue", "red", "red"), list);
+        assertEquals(2, dictionary.size());
+        assertEquals(dictionary.encode("red"), dictionary.lookup("red"));
+        assertEquals(-1, dictionary.lookup("green"));
+        assertEquals(2, dictionary.size()); // lookup doesn't add
+        assertThrows(IndexOutOfBoundsException.class, () -> dictionary.decode(2));
+    }
+
+    @Test
+    void changesMatchArrayList() {
+
+        DictionaryEncodedList list = new DictionaryEncodedList(new StringDictionary());
+        ArrayList<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+
+            list.add("v" + (i % 7));
+            expected.add("v" + (i % 7));
+        }
+
+        list.add(3, "new");
+        expected.add(3, "new");
+        assertEquals(expected.remove(10), list.remove(10));
+        assertEquals(expected.set(0, "v6"), list.set(0, "v6"));
+        list.subList(20, 40).clear();
+        expected.subList(20, 40).clear();
+
+        assertEquals(expected, list);
+        assertEquals(expected.hashCode(), list.hashCode());
+        assertEquals(expected.indexOf("v5"), list.indexOf("v5"));
+        assertEquals(-1, list.indexOf("missing"));
+        assertFalse(list.contains(5));
+    }
+
+    @Test
+    void listsWithSameDictionaryCompareCodes() {
+
+        StringDictionary dictionary = new StringDictionary();
+        DictionaryEncodedList first = new DictionaryEncodedList(dictionary, Arrays.asList("a", "b"));
+        DictionaryEncodedList second = new DictionaryEncodedList(dictionary, Arrays.asList("a", "b"));
+        DictionaryEncodedList other = new DictionaryEncodedList(new StringDictionary(), Arrays.asList("b", "a", "b"));
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        other.remove(0);
+        assertEquals(first, other); // other dictionary, compared string by string
+    }
+
+    @Test
+    void tablesShareDictionary() throws Exception {
+
+        StringDictionary dictionary = new StringDictionary();
+        String first = this.directory.resolve("first").toString();
+        String second = this.directory.resolve("second").toString();
+        new VariableLengthTable(first, new ArrayList<String>(Arrays.asList("x", "y", "x")), 2);
+        new VariableLengthTable(second, new ArrayList<String>(Arrays.asList("y", "z")), 2);
+
+        VariableLengthTable firstTable = new VariableLengthTable(first, 2, dictionary);
+        VariableLengthTable secondTable = new VariableLengthTable(second, 2, dictionary);
+        assertEquals(2, firstTable.getNumberOfRows()); // both files are read
+        assertEquals(1, secondTable.getNumberOfRows());
+        assertEquals(3, dictionary.size());
+        assertEquals(1, firstTable.indexOf("y"));
+    }
+
+    @Test
+    void threadsEncodeAndDecodeAtOnce() throws Exception {
+
+        StringDictionary dictionary = new StringDictionary();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        ArrayList<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+
+        for (int t = 0; t < 4; t++) {
+
+            results.add(pool.submit(() -> {
+
+                for (int i = 0; i < 20000; i++) {
+
+                    String value = "s" + i;
+                    int code = dictionary.encode(value);
+                    if (!value.equals(dictionary.decode(code))) {
+
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+
+        for (Future<Boolean> result : results) {
+
+            assertTrue(result.get());
+        }
+        pool.shutdown();
+        assertEquals(20000, dictionary.size());
+    }
+}
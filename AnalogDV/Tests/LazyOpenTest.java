@@ -0,0 +1,57 @@
+/* Tests of file-backed tables that are opened without reading their file: what they answer before they are
+ * read should be what they answer after.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyOpenTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    @Test
+    void columnsChangedInJournal() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        new VariableLengthTable(path, new ArrayList<String>(Arrays.asList("a", "b", "c", "d")), 2);
+        new VariableLengthTable(path, 2).setColumns(3); // only in the journal
+
+        VariableLengthTable table = new VariableLengthTable(path, 2);
+        assertEquals(3, table.getColumns());
+        assertEquals(4, table.size());
+        assertEquals(2, table.getNumberOfRows());
+    }
+
+    @Test
+    void statisticalColumnsChangedInJournal() throws Exception {
+
+        String path = this.directory.resolve("statistical").toString();
+        StatisticalTable written = new StatisticalTable(path, 2);
+        written.add(1, 2, 3, 4, 5);
+        written.compact();
+        new StatisticalTable(path, 2).setColumns(4);
+
+        StatisticalTable table = new StatisticalTable(path, 2);
+        assertEquals(4, table.getColumns());
+        assertEquals(5, table.size());
+    }
+
+    @Test
+    void unreadableFileLeavesTableEmpty() throws Exception {
+
+        String path = this.directory.resolve("broken").toString();
+        new VariableLengthTable(path, new ArrayList<String>(Arrays.asList("a", "b", "c")), 2);
+        Files.writeString(Path.of(path), Files.readString(Path.of(path)) + "\n[ d ]\nxx"); // last line should be a bar
+
+        VariableLengthTable table = new VariableLengthTable(path, 2);
+        assertThrows(Exception.class, () -> table.getNumberOfRows());
+        assertEquals(0, table.getElements().size()); // rows read before the error were dropped again
+    }
+}
@@ -0,0 +1,61 @@
+/* Tests of mergeFile(String): the merged file should be the file the table would print out with all elements.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MergeFileTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    /**
+     * Writes a table file
+     *
+     * @param name name of the file
+     * @param columns number of columns on each row
+     * @param elements elements of the table
+     * @return path of the file
+     * @throws Exception if the table can't be written
+     */
+    private String write(String name, int columns, String... elements) throws Exception {
+
+        String path = this.directory.resolve(name).toString();
+        new VariableLengthTable(path, new ArrayList<String>(Arrays.asList(elements)), columns);
+        return path;
+    }
+
+    @Test
+    void mergedFileIsPrintedTable() throws Exception {
+
+        String target = this.write("target", 3, "aa", "bb", "cc", "dd");
+        String narrow = this.write("narrow", 2, "x", "y", "z");
+        String wide = this.write("wide", 2, "wwwww");
+        String expected = this.write("expected", 3, "aa", "bb", "cc", "dd", "x", "y", "z", "wwwww");
+
+        VariableLengthTable table = new VariableLengthTable(target, 3);
+        assertEquals(3, table.mergeFile(narrow)); // rows are copied
+        assertEquals(1, table.mergeFile(wide)); // cells are padded again
+        assertEquals(Files.readString(Path.of(expected)), Files.readString(Path.of(target)));
+        assertEquals(8, table.size());
+        assertEquals(0, this.directory.toFile().listFiles((dir, name) -> name.endsWith(".tmp")).length);
+    }
+
+    @Test
+    void sameContentIsNotMerged() throws Exception {
+
+        String target = this.write("target", 2, "a", "b", "c");
+        String same = this.write("same", 2, "a", "b", "c");
+        long length = new File(target).length();
+
+        assertEquals(0, new VariableLengthTable(target, 2).mergeFile(same));
+        assertEquals(length, new File(target).length());
+    }
+}
@@ -0,0 +1,93 @@
+/* Tests of NumberCodec: parsing should give exactly what Double.parseDouble gives, and throw where it throws,
+ * both on the fast path and on everything that is left to Double.parseDouble. Formatting should give exactly
+ * what Double.toString gives.
+ */
+
+package analogdv;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumberCodecTest {
+
+    /**
+     * Checks that a text is parsed to the same bits as Double.parseDouble gives, or throws like it does
+     *
+     * @param text the text
+     */
+    private static void assertParsedLikeDouble(String text) {
+
+        double expected;
+        try {
+
+            expected = Double.parseDouble(text);
+        }
+        catch (NumberFormatException e) {
+
+            assertThrows(NumberFormatException.class, () -> NumberCodec.parse(text), text);
+            return;
+        }
+
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(NumberCodec.parse(text)), text);
+    }
+
+    @Test
+    void fastPathMatchesParseDouble() {
+
+        String[] texts = {"0", "-0", "+0.0", "1", "-1.5", "0.1", "123.456", ".5", "5.", "1e10", "1E-5", "-2.5e+3",
+            "9007199254740992", "9007199254740993", "0.000001", "1e22", "1e-22", "123456789012345678", "0012.50"};
+        for (String text : texts) {
+
+            assertParsedLikeDouble(text);
+        }
+
+        Random random = new Random(37);
+        for (int i = 0; i < 100000; i++) {
+
+            long mantissa = random.nextLong() % 10000000000000000L;
+            int exponent = random.nextInt(50) - 25;
+            assertParsedLikeDouble(mantissa + "e" + exponent);
+            assertParsedLikeDouble(Double.toString(random.nextDouble() * Math.pow(10, exponent)));
+        }
+    }
+
+    @Test
+    void otherTextsAreLeftToParseDouble() {
+
+        String[] texts = {"NaN", "-Infinity", "Infinity", "0x1.8p1", "1d", "2.5f", " 3", "3 ", "1e400", "1e-400",
+            "4.9e-324", "1.7976931348623157e308", "12345678901234567890123", "0.1234567890123456789", "1e99999",
+            "", "-", ".", "e5", "1e", "1e+", "1..2", "1.2.3", "--1", "1-", "abc"};
+        for (String text : texts) {
+
+            assertParsedLikeDouble(text);
+        }
+    }
+
+    @Test
+    void partOfTextIsParsed() {
+
+        String row = "[ 12.5 ][ -3e2 ]";
+        assertEquals(12.5, NumberCodec.parse(row, 2, 6));
+        assertEquals(-300, NumberCodec.parse(row, 10, 14));
+        assertThrows(NumberFormatException.class, () -> NumberCodec.parse(row, 0, 6));
+    }
+
+    @Test
+    void formatMatchesToString() {
+
+        double[] values = {0, -0.0, 1, -1, 0.5, 9999999, 1e7, -1e7, 123456.789, 1e-3, 1e-4, Double.NaN,
+            Double.POSITIVE_INFINITY, Double.MIN_VALUE, Double.MAX_VALUE, Long.MAX_VALUE};
+        for (double value : values) {
+
+            assertEquals(Double.toString(value), NumberCodec.format(value));
+        }
+
+        Random random = new Random(37);
+        for (int i = 0; i < 10000; i++) {
+
+            double value = random.nextInt(20000000) - 10000000;
+            assertEquals(Double.toString(value), NumberCodec.format(value));
+            assertEquals(value, NumberCodec.parse(NumberCodec.format(value)));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/* Tests of the off-heap lists: they should hold what an ArrayList given the same changes holds, and a table
+ * that keeps its elements off the heap should answer what it answered before.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapListTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    @Test
+    void stringsMatchArrayList() {
+
+        Random random = new Random(30);
+        OffHeapList list = new OffHeapList();
+        ArrayList<String> expected = new ArrayList<String>();
+
+        for (int i = 0; i < 5000; i++) {
+
+            String element = "élément " + i + " ✓";
+            int operation = random.nextInt(10);
+            if (operation < 6 || expected.isEmpty()) {
+
+                int index = random.nextInt(expected.size() + 1);
+                list.add(index, element);
+                expected.add(index, element);
+            }
+            else if (operation < 8) {
+
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.remove(index));
+            }
+            else {
+
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, element), list.set(index, element));
+            }
+        }
+
+        assertEquals(expected, list);
+        list.subList(10, 100).clear();
+        expected.subList(10, 100).clear();
+        assertEquals(expected, list);
+    }
+
+    @Test
+    void replacedElementsGiveBackTheirBytes() {
+
+        char[] large = new char[300000];
+        Arrays.fill(large, 'x');
+        OffHeapList list = new OffHeapList(List.of("a", "b"));
+        for (int i = 0; i < 20; i++) { // several segments worth of replaced elements
+
+            list.set(0, new String(large) + i);
+        }
+
+        assertEquals(new String(large) + 19, list.get(0));
+        assertEquals("b", list.get(1));
+        list.clear();
+        assertTrue(list.isEmpty());
+        list.add("c");
+        assertEquals(List.of("c"), list);
+    }
+
+    @Test
+    void numbersMatchArrayList() {
+
+        OffHeapDoubleList list = new OffHeapDoubleList(List.of(1.5, -2.0));
+        ArrayList<Double> expected = new ArrayList<Double>(List.of(1.5, -2.0));
+        for (int i = 0; i < 1000; i++) {
+
+            list.add(i % 3 == 0 ? 0 : list.size(), i * 0.25);
+            expected.add(i % 3 == 0 ? 0 : expected.size(), i * 0.25);
+        }
+
+        assertEquals(expected.remove(500), list.remove(500));
+        assertEquals(expected.set(3, Double.NaN), list.set(3, Double.NaN));
+        list.subList(100, 200).clear();
+        expected.subList(100, 200).clear();
+
+        assertEquals(expected, list);
+        assertEquals(expected.get(42), list.getDouble(42));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(list.size()));
+    }
+
+    @Test
+    void statisticalTableKeepsValuesOffHeap() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        StatisticalTable table = new StatisticalTable(path, 2);
+        table.add(1, 2, 3, 4, 5, 6);
+        double mean = table.getMeanValue();
+        double deviation = table.getStandardDeviation(0);
+        double[] regression = table.linearRegression(1, 2);
+
+        table.useOffHeapStorage();
+        assertEquals(mean, table.getMeanValue());
+        assertEquals(deviation, table.getStandardDeviation(0));
+        assertArrayEquals(regression, table.linearRegression(1, 2));
+
+        table.remove(0);
+        table.add(7);
+        assertEquals(4.5, table.getMeanValue());
+        assertEquals(6, new StatisticalTable(path, 2).size());
+    }
+}
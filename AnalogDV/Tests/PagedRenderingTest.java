@@ -0,0 +1,130 @@
+/* Tests of paged rendering: a page of rows should look like the same rows of the whole table, and the whole
+ * table, which is rebuilt only from the first changed row, should look like a table built from scratch.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedRenderingTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    /**
+     * Makes a table with 3 columns and 4 full rows, the widest element is in the middle
+     *
+     * @return the table
+     * @throws Exception if the table can't be written
+     */
+    private VariableLengthTable makeTable() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        ArrayList<String> elements = new ArrayList<String>(Arrays.asList("a", "bb", "c", "d", "widest", "f", "g", "h", "i", "j", "k", "l"));
+        return new VariableLengthTable(path, elements, 3);
+    }
+
+    /**
+     * Joins some lines of a string representation of a table
+     *
+     * @param lines lines of the table
+     * @param from first line
+     * @param to line after the last one
+     * @return the lines, seperated by line breaks
+     */
+    private static String join(String[] lines, int from, int to) {
+
+        return String.join("\n", Arrays.copyOfRange(lines, from, to));
+    }
+
+    @Test
+    void pageMatchesWholeTable() throws Exception {
+
+        VariableLengthTable table = this.makeTable();
+        String[] lines = table.getTable().split("\n");
+        assertEquals(9, lines.length); // a bar above and below each of 4 rows
+
+        assertEquals(table.getTable(), table.getTable(0, 4));
+        assertEquals(join(lines, 2, 7), table.getTable(1, 3));
+        assertEquals(join(lines, 6, 9), table.getTable(3, 100)); // rows past the end are ignored
+        assertEquals(lines[0], table.getTable(4, 10).trim()); // only the bar above
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getTable(-1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getTable(3, 2));
+    }
+
+    @Test
+    void rowIteratorMatchesWholeTable() throws Exception {
+
+        VariableLengthTable table = this.makeTable();
+        table.add("m"); // a last row that isn't full
+        String[] lines = table.getTable().split("\n");
+        assertEquals(5, table.getNumberOfRows());
+
+        Iterator<String> rows = table.rowIterator(1, 10);
+        for (int row = 1; row < 5; row++) {
+
+            assertTrue(rows.hasNext());
+            assertEquals(lines[2 * row + 1], rows.next());
+        }
+        assertFalse(rows.hasNext());
+        assertThrows(NoSuchElementException.class, () -> rows.next());
+        assertFalse(table.rowIterator(5, 6).hasNext());
+    }
+
+    @Test
+    void cellWidthFollowsWidestElement() throws Exception {
+
+        VariableLengthTable table = this.makeTable();
+        int width = table.getTable().indexOf('\n');
+        assertEquals((6 + 4) * 3, width);
+
+        table.remove(4); // the widest one
+        assertEquals((2 + 4) * 3, table.getTable().indexOf('\n'));
+        table.add("wider than all");
+        assertEquals((14 + 4) * 3, table.getTable().indexOf('\n'));
+        table.removeRow(3);
+        assertEquals((2 + 4) * 3, table.getTable().indexOf('\n'));
+    }
+
+    @Test
+    void changedTableMatchesTableBuiltFromScratch() throws Exception {
+
+        VariableLengthTable table = this.makeTable();
+        Random random = new Random(31);
+        table.getTable();
+
+        for (int i = 0; i < 300; i++) {
+
+            int size = table.size();
+            int operation = random.nextInt(4);
+            if (operation < 2 || size == 0) {
+
+                table.add("x" + "y".repeat(random.nextInt(3)));
+            }
+            else if (operation == 2) {
+
+                table.remove(random.nextInt(size));
+            }
+            else {
+
+                int from = random.nextInt(size);
+                table.removeRange(from, Math.min(size, from + random.nextInt(4)));
+            }
+
+            if (table.size() > 0 && random.nextInt(3) == 0) {
+
+                assertEquals(table.render(table.getElements()), table.getTable());
+            }
+        }
+
+        table.setColumns(4);
+        assertEquals(table.render(table.getElements()), table.getTable());
+    }
+}
@@ -0,0 +1,113 @@
+/* Tests of range-filtered statistics: countWhere and summarizeWhere should answer what going through the rows
+ * one by one answers, whether the filtered column has an index or not, and after the index has gone stale.
+ */
+
+package analogdv;
+import java.util.List;
+import java.util.Random;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RangeStatisticsTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    /**
+     * Checks countWhere and summarizeWhere of a table against going through its values one by one
+     *
+     * @param table the table
+     * @param filterColumn column the range is on, counting from 1
+     * @param column column the statistics are of, counting from 1
+     * @param from smallest value of the range
+     * @param to largest value of the range
+     * @throws Exception if a column isn't in the table
+     */
+    private static void assertLikeRowByRow(StatisticalTable table, int filterColumn, int column, double from, double to) throws Exception {
+
+        List<String> elements = table.getElements();
+        int columns = table.getColumns();
+        int count = 0;
+        int summarized = 0;
+        double sum = 0;
+        for (int cell = filterColumn - 1; cell < elements.size(); cell += columns) {
+
+            double value = Double.parseDouble(elements.get(cell));
+            if (value >= from && value <= to) {
+
+                count++;
+                int other = cell - filterColumn + column;
+                if (other < elements.size()) {
+
+                    summarized++;
+                    sum += Double.parseDouble(elements.get(other));
+                }
+            }
+        }
+
+        assertEquals(count, table.countWhere(filterColumn, from, to));
+        StatisticalSummary summary = table.summarizeWhere(column, filterColumn, from, to);
+        assertEquals(summarized, summary.getCount());
+        assertEquals(sum, summary.getSum(), 1e-9);
+    }
+
+    @Test
+    void indexedColumnAnswersLikeRowByRow() throws Exception {
+
+        StatisticalTable indexed = new StatisticalTable(this.directory.resolve("indexed").toString(), 3);
+        StatisticalTable plain = new StatisticalTable(this.directory.resolve("plain").toString(), 3);
+        indexed.useColumnIndex(2);
+        Random random = new Random(44);
+
+        for (int i = 0; i < 300; i++) {
+
+            int operation = random.nextInt(10);
+            if (operation < 6 || plain.size() == 0) {
+
+                double value = random.nextInt(20) - 10;
+                indexed.add(value);
+                plain.add(value);
+            }
+            else if (operation == 6) {
+
+                int cellNumber = random.nextInt(plain.size());
+                indexed.remove(cellNumber);
+                plain.remove(cellNumber);
+            }
+            else {
+
+                double from = random.nextInt(24) - 12;
+                double to = from + random.nextInt(8);
+                assertEquals(plain.countWhere(2, from, to), indexed.countWhere(2, from, to));
+                assertLikeRowByRow(indexed, 2, 3, from, to); // the last row might not reach column 3
+                assertLikeRowByRow(plain, 2, 1, from, to);
+            }
+        }
+
+        indexed.setColumns(2);
+        assertLikeRowByRow(indexed, 2, 1, -5, 5);
+        assertLikeRowByRow(indexed, 2, 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    void edgesOfRange() throws Exception {
+
+        StatisticalTable table = new StatisticalTable(this.directory.resolve("table").toString(), 2);
+        table.addRows(new double[][] {{-0.0, 1}, {0, 2}, {10, 3}, {Double.NaN, 4}});
+        table.useColumnIndex(1);
+
+        assertEquals(2, table.countWhere(1, 0, 0)); // -0.0 and 0.0 are equal
+        assertEquals(3, table.countWhere(1, 0, 10)); // both bounds are inclusive
+        assertEquals(0, table.countWhere(1, Math.nextUp(10), Double.POSITIVE_INFINITY));
+        assertEquals(0, table.countWhere(1, 5, 4));
+        assertEquals(0, table.countWhere(1, Double.NaN, 10));
+        assertEquals(3, table.countWhere(1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY)); // NaN is in no range
+        assertEquals(2.0, table.summarizeWhere(2, 1, 0, 10).getMeanValue());
+
+        assertThrows(Exception.class, () -> table.countWhere(3, 0, 1));
+        assertThrows(Exception.class, () -> table.summarizeWhere(1, 0, 0, 1));
+        assertThrows(Exception.class, () -> table.useColumnIndex(3));
+    }
+}
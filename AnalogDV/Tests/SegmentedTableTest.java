@@ -0,0 +1,62 @@
+/* Tests of SegmentedTable: statistics that are calculated for the segments in parallel should be the same as
+ * the ones calculated for all elements one after the other.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedTableTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    /**
+     * Makes numbers that fill several segments
+     *
+     * @param count number of numbers
+     * @return the numbers, as elements
+     */
+    private static ArrayList<String> numbers(int count) {
+
+        ArrayList<String> elements = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+
+            elements.add(NumberCodec.format((i * 7919 % 10007) / 100.0));
+        }
+
+        return elements;
+    }
+
+    @Test
+    void summarizeMatchesSequentialFold() throws Exception {
+
+        ArrayList<String> elements = numbers(4 * SegmentedTable.SEGMENT_SIZE + 123);
+        SegmentedTable table = new SegmentedTable(this.directory.resolve("table").toString(), 3);
+        table.add(elements);
+        assertTrue(table.getNumberOfSegments() > 1);
+
+        for (int i = 0; i < 40; i++) {
+
+            int columns = 3 + i % 2;
+            table.setColumns(columns); // every segment is summarized again
+
+            StatisticalSummary expected = new StatisticalSummary(columns);
+            for (String element : elements) {
+
+                expected.add(NumberCodec.parse(element));
+            }
+
+            StatisticalSummary summary = table.summarize();
+            assertEquals(expected.getCount(), summary.getCount());
+            assertEquals(expected.getSum(), summary.getSum(), 1e-6);
+            assertEquals(expected.getMin(), summary.getMin());
+            assertEquals(expected.getMax(), summary.getMax());
+            assertEquals(expected.getStandardDeviation(0), summary.getStandardDeviation(0), 1e-9);
+            assertArrayEquals(expected.linearRegression(1, 2), summary.linearRegression(1, 2), 1e-9);
+        }
+    }
+}
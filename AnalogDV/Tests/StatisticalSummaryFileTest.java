@@ -0,0 +1,119 @@
+/* Tests of the summary file next to a statistical table: it is only written when the table is, and it is
+ * only used while the table file has the content it was calculated from.
+ */
+
+package analogdv;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticalSummaryFileTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    @Test
+    void readingDoesNotWriteSummary() throws Exception {
+
+        Path path = this.directory.resolve("table");
+        Path other = this.directory.resolve("other");
+        StatisticalTable written = new StatisticalTable(other.toString(), 2);
+        written.add(1, 2, 3);
+        written.compact();
+        Files.copy(other, path); // a table file without a summary
+
+        StatisticalTable table = new StatisticalTable(path.toString(), 2);
+        assertEquals(2.0, table.getMeanValue());
+        assertEquals(2.0, table.getMedianValue());
+        assertFalse(new File(path + ".summary").exists());
+    }
+
+    @Test
+    void sameLengthRewriteIsNotAnswered() throws Exception {
+
+        Path path = this.directory.resolve("table");
+        StatisticalTable written = new StatisticalTable(path.toString(), 2);
+        written.add(1, 2, 3, 4);
+        written.compact(); // writes the summary too
+        assertTrue(new File(path + ".summary").exists());
+
+        FileTime modified = Files.getLastModifiedTime(path);
+        String content = Files.readString(path);
+        Files.writeString(path, content.replace("[ 1", "[ 9")); // same length, other values
+        Files.setLastModifiedTime(path, modified);
+
+        StatisticalTable table = new StatisticalTable(path.toString(), 2);
+        assertEquals(4.5, table.getMeanValue());
+    }
+
+    @Test
+    void loadedAndUnloadedRegressionAgree() throws Exception {
+
+        Path path = this.directory.resolve("table");
+        StatisticalTable written = new StatisticalTable(path.toString(), 2);
+        for (int i = 0; i < 1000; i++) {
+
+            double x = 1.6e9 + i;
+            written.add(x, 3 * x - 4.8e9 + (i % 5));
+        }
+        written.compact();
+
+        StatisticalTable table = new StatisticalTable(path.toString(), 2);
+        double[] unloaded = table.linearRegression(1, 2); // answered from the summary file
+        table.materialize();
+        double[] loaded = table.linearRegression(1, 2);
+
+        assertEquals(loaded[1], unloaded[1], 1e-9);
+        assertEquals(loaded[0], unloaded[0], 1e-9 * Math.abs(loaded[0]));
+    }
+
+    @Test
+    void summaryOfOlderFormatIsNotUsed() throws Exception {
+
+        Path path = this.directory.resolve("table");
+        StatisticalTable written = new StatisticalTable(path.toString(), 2);
+        written.add(1, 2, 3, 4);
+        written.compact();
+
+        Path summary = Path.of(path + ".summary");
+        StringBuilder older = new StringBuilder();
+        for (String line : Files.readAllLines(summary)) {
+
+            if (line.startsWith("sum\t")) {
+
+                older.append("sum\t100.0\n");
+            }
+            else if (!line.startsWith("format\t")) {
+
+                older.append(line + "\n");
+            }
+        }
+        Files.writeString(summary, older.toString()); // same stamp, but no format line
+
+        assertEquals(2.5, new StatisticalTable(path.toString(), 2).getMeanValue());
+    }
+
+    @Test
+    void rewrittenFileIsNoticedByOpenTable() throws Exception {
+
+        Path path = this.directory.resolve("table");
+        Path other = this.directory.resolve("other");
+        StatisticalTable written = new StatisticalTable(path.toString(), 2);
+        written.add(1, 2, 3);
+        written.compact();
+        StatisticalTable otherWritten = new StatisticalTable(other.toString(), 2);
+        otherWritten.add(10, 20, 30, 40);
+        otherWritten.compact();
+
+        StatisticalTable table = new StatisticalTable(path.toString(), 2);
+        assertEquals(2.0, table.getMeanValue()); // from the summary file
+        Files.copy(other, path, java.nio.file.StandardCopyOption.REPLACE_EXISTING); // summary file is the old one
+
+        assertEquals(25.0, table.getMeanValue());
+        assertEquals(4, table.size());
+    }
+}
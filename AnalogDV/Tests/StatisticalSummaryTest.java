@@ -0,0 +1,143 @@
+/* Tests of StatisticalSummary: a summary folded one value at a time, or merged from parts, should answer what
+ * the statistics of all values answer.
+ */
+
+package analogdv;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticalSummaryTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    /**
+     * Makes rows with x values far from 0, y = 3 * x - 4.8e9 plus some noise
+     *
+     * @param rows number of rows
+     * @return values of the rows, one row after the other
+     */
+    private static double[] largeValues(int rows) {
+
+        double[] values = new double[rows * 2];
+        for (int i = 0; i < rows; i++) {
+
+            double x = 1.6e9 + i;
+            values[i * 2] = x;
+            values[i * 2 + 1] = 3 * x - 4.8e9 + (i % 7) - 3;
+        }
+
+        return values;
+    }
+
+    /**
+     * Calculates the best fit line of pairs with two passes over the values, first the means then the distances
+     *
+     * @param values x and y values, one pair after the other
+     * @return a and b of Y = a + b * X
+     */
+    private static double[] twoPassRegression(double[] values) {
+
+        int pairs = values.length / 2;
+        double meanOfX = 0;
+        double meanOfY = 0;
+        for (int i = 0; i < pairs; i++) {
+
+            meanOfX += values[i * 2] / pairs;
+            meanOfY += values[i * 2 + 1] / pairs;
+        }
+
+        double numerator = 0;
+        double denominator = 0;
+        for (int i = 0; i < pairs; i++) {
+
+            numerator += (values[i * 2] - meanOfX) * (values[i * 2 + 1] - meanOfY);
+            denominator += (values[i * 2] - meanOfX) * (values[i * 2] - meanOfX);
+        }
+
+        double b = numerator / denominator;
+        return new double[] {meanOfY - b * meanOfX, b};
+    }
+
+    @Test
+    void regressionKeepsPrecisionOfLargeValues() throws Exception {
+
+        double[] values = largeValues(1000);
+        StatisticalSummary summary = new StatisticalSummary(2);
+        for (double value : values) {
+
+            summary.add(value);
+        }
+
+        double[] expected = twoPassRegression(values);
+        double[] constants = summary.linearRegression(1, 2);
+        assertEquals(expected[1], constants[1], 1e-6);
+        assertEquals(expected[0], constants[0], 1e-6 * Math.abs(expected[0]));
+    }
+
+    @Test
+    void mergedPartsAnswerLikeWhole() throws Exception {
+
+        double[] values = largeValues(999);
+        StatisticalSummary whole = new StatisticalSummary(2);
+        for (double value : values) {
+
+            whole.add(value);
+        }
+
+        int[] cuts = {0, 301, 1000, 1001, values.length}; // parts that start in the middle of a row too
+        StatisticalSummary merged = new StatisticalSummary(2);
+        for (int i = 0; i < cuts.length - 1; i++) {
+
+            StatisticalSummary part = new StatisticalSummary(2, cuts[i]);
+            for (int j = cuts[i]; j < cuts[i + 1]; j++) {
+
+                part.add(values[j]);
+            }
+            merged.merge(part);
+        }
+
+        assertEquals(whole.getCount(), merged.getCount());
+        assertEquals(whole.getMeanValue(), merged.getMeanValue(), 1e-6);
+        assertEquals(whole.getStandardDeviation(0), merged.getStandardDeviation(0), 1e-6);
+        assertArrayEquals(whole.linearRegression(1, 2), merged.linearRegression(1, 2), 1e-3);
+    }
+
+    @Test
+    void unfinishedRowCountsForItsColumns() throws Exception {
+
+        StatisticalSummary summary = new StatisticalSummary(3);
+        for (double value : new double[] {1, 2, 0, 2, 4, 0, 3, 6}) { // last row only has the first two columns
+
+            summary.add(value);
+        }
+
+        assertArrayEquals(new double[] {0, 2}, summary.linearRegression(1, 2), 1e-9);
+        assertThrows(Exception.class, () -> summary.linearRegression(4, 1));
+    }
+
+    @Test
+    void readFoldsTableFile() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        StatisticalTable table = new StatisticalTable(path, 2);
+        table.add(largeValues(100));
+        table.compact();
+
+        StatisticalSummary summary = StatisticalSummary.read(path, 2);
+        assertEquals(200, summary.getCount());
+        assertEquals(table.getMeanValue(), summary.getMeanValue(), 1e-3);
+        assertArrayEquals(table.linearRegression(1, 2), summary.linearRegression(1, 2), 1e-3);
+    }
+
+    @Test
+    void emptySummaryHasNoStatistics() throws Exception {
+
+        StatisticalSummary summary = new StatisticalSummary(2);
+        assertThrows(Exception.class, () -> summary.getMeanValue());
+        assertThrows(Exception.class, () -> summary.linearRegression(1, 2));
+        assertEquals(0, summary.getCount());
+    }
+}
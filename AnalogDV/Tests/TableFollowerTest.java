@@ -0,0 +1,132 @@
+/* Tests of follow mode: rows another program appends to a table file are read by refresh() and TableFollower,
+ * and a file that has been rewritten instead is reported rather than read as appended rows.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableFollowerTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    /**
+     * Writes a table file with cells of one character
+     *
+     * @param name name of the file
+     * @param elements elements of the table
+     * @return path of the file
+     * @throws Exception if the table can't be written
+     */
+    private Path write(String name, String... elements) throws Exception {
+
+        Path path = this.directory.resolve(name);
+        new VariableLengthTable(path.toString(), new ArrayList<String>(Arrays.asList(elements)), 2);
+        return path;
+    }
+
+    /**
+     * Replaces a file with another one, and makes sure its modification time is another one
+     *
+     * @param source the new content
+     * @param target the file that is replaced
+     * @throws IOException if something happens while writing to file
+     */
+    private static void replace(Path source, Path target) throws IOException {
+
+        FileTime modified = Files.getLastModifiedTime(target);
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        Files.setLastModifiedTime(target, FileTime.fromMillis(modified.toMillis() + 2000));
+    }
+
+    @Test
+    void appendedRowsAreRead() throws Exception {
+
+        Path path = this.write("table", "a", "b");
+        Path longer = this.write("longer", "a", "b", "c", "d");
+        assertTrue(Files.readString(longer).startsWith(Files.readString(path))); // rows appended, nothing else
+
+        VariableLengthTable table = new VariableLengthTable(path.toString(), 2);
+        assertEquals(0, table.refresh());
+        replace(longer, path);
+
+        assertEquals(2, table.refresh());
+        assertEquals(4, table.size());
+        assertEquals(0, table.refresh());
+    }
+
+    @Test
+    void sameLengthRewriteIsNoticed() throws Exception {
+
+        Path path = this.write("table", "a", "b");
+        Path rewritten = this.write("rewritten", "z", "b");
+
+        VariableLengthTable table = new VariableLengthTable(path.toString(), 2);
+        table.refresh();
+        replace(rewritten, path);
+
+        assertThrows(IOException.class, () -> table.refresh());
+    }
+
+    @Test
+    void longerRewriteIsNoticed() throws Exception {
+
+        Path path = this.write("table", "a", "b");
+        Path rewritten = this.write("rewritten", "z", "b", "c", "d");
+
+        StatisticalTable numbers = new StatisticalTable(this.directory.resolve("numbers").toString(), 2);
+        numbers.add(1, 2);
+        numbers.compact();
+        Path numbersRewritten = this.directory.resolve("numbersRewritten");
+        StatisticalTable other = new StatisticalTable(numbersRewritten.toString(), 2);
+        other.add(5, 2, 3, 4);
+        other.compact();
+
+        VariableLengthTable table = new VariableLengthTable(path.toString(), 2);
+        table.refresh();
+        replace(rewritten, path);
+        assertThrows(IOException.class, () -> table.refresh());
+
+        numbers.refresh();
+        replace(numbersRewritten, this.directory.resolve("numbers"));
+        assertThrows(IOException.class, () -> numbers.refresh());
+    }
+
+    @Test
+    void followerReadsRowsAndStopsOnRewrite() throws Exception {
+
+        Path path = this.write("table", "a", "b");
+        Path longer = this.write("longer", "a", "b", "c", "d");
+        Path rewritten = this.write("rewritten", "z", "b", "c", "d", "e", "f");
+
+        VariableLengthTable table = new VariableLengthTable(path.toString(), 2);
+        table.refresh();
+        TableFollower follower = new TableFollower(table, 5);
+        replace(longer, path);
+        for (int i = 0; i < 400 && table.size() < 4; i++) {
+
+            Thread.sleep(5);
+        }
+        synchronized (table) {
+
+            assertEquals(4, table.size());
+        }
+
+        replace(rewritten, path);
+        for (int i = 0; i < 400 && follower.getError() == null; i++) {
+
+            Thread.sleep(5);
+        }
+        assertTrue(follower.getError() instanceof IOException);
+        follower.close();
+    }
+}
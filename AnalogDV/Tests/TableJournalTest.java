@@ -0,0 +1,183 @@
+/* Tests of the journal of file-backed tables: changes are logged instead of rewriting the table file, and a
+ * table that is opened again applies them to the file it finds, at the positions they were made at.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableJournalTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    /**
+     * Makes a list of elements
+     *
+     * @param elements the elements
+     * @return the list
+     */
+    private static ArrayList<String> list(String... elements) {
+
+        return new ArrayList<String>(Arrays.asList(elements));
+    }
+
+    /**
+     * Fetches the elements of a table, its file is read first
+     *
+     * @param table the table
+     * @return copy of its elements
+     * @throws Exception if the table file can't be read
+     */
+    private static ArrayList<String> elements(Table table) throws Exception {
+
+        table.materialize();
+        return new ArrayList<String>(table.getElements());
+    }
+
+    @Test
+    void changesAreLoggedNotPrinted() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        new VariableLengthTable(path, list("a", "b", "c"), 2);
+        String printed = Files.readString(Path.of(path));
+
+        VariableLengthTable table = new VariableLengthTable(path, 2);
+        table.add("d");
+        table.remove(0);
+        assertEquals(printed, Files.readString(Path.of(path)));
+        assertTrue(new File(path + ".journal").length() > 0);
+
+        assertEquals(list("b", "c", "d"), elements(new VariableLengthTable(path, 2)));
+    }
+
+    @Test
+    void compactPrintsJournal() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        new VariableLengthTable(path, list("a", "b", "c"), 2);
+        VariableLengthTable table = new VariableLengthTable(path, 2);
+        table.remove(1);
+        table.compact();
+
+        assertFalse(new File(path + ".journal").exists());
+        assertEquals(table.getTable(), Files.readString(Path.of(path)));
+        assertEquals(list("a", "c"), elements(new VariableLengthTable(path, 2)));
+    }
+
+    @Test
+    void journalIsCompactedWhenFull() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        VariableLengthTable table = new VariableLengthTable(path, 2);
+        for (int i = 0; i < TableJournal.COMPACTION_INTERVAL; i++) {
+
+            table.add("e" + i);
+        }
+
+        assertFalse(new File(path + ".journal").exists());
+        assertEquals(TableJournal.COMPACTION_INTERVAL, new VariableLengthTable(path, 2).size());
+    }
+
+    @Test
+    void journalOfOtherSnapshotIsIgnored() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        new VariableLengthTable(path, list("a", "b"), 2);
+        new VariableLengthTable(path, 2).remove(0);
+        Path copy = this.directory.resolve("journal");
+        Files.copy(Path.of(path + ".journal"), copy);
+        new VariableLengthTable(path, 2).compact(); // the snapshot has the removal now
+        Files.copy(copy, Path.of(path + ".journal")); // as if the old journal had survived a crash
+
+        assertEquals(list("b"), elements(new VariableLengthTable(path, 2)));
+    }
+
+    @Test
+    void cutOffRecordIsIgnored() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        new VariableLengthTable(path, list("a", "b"), 2);
+        new VariableLengthTable(path, 2).add("c");
+        Files.writeString(Path.of(path + ".journal"), "A\td", java.nio.file.StandardOpenOption.APPEND); // no newline
+
+        assertEquals(list("a", "b", "c"), elements(new VariableLengthTable(path, 2)));
+    }
+
+    @Test
+    void newElementsDoNotShiftJournal() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        new VariableLengthTable(path, list("a", "b", "c"), 2);
+        new VariableLengthTable(path, 2).remove(0); // only in the journal, position 0 of the file
+
+        VariableLengthTable table = new VariableLengthTable(path, list("NEW"), 2);
+        assertEquals(list("NEW", "b", "c"), elements(table));
+        assertEquals(list("NEW", "b", "c"), elements(new VariableLengthTable(path, 2)));
+    }
+
+    @Test
+    void clearInJournalKeepsNewElements() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        new VariableLengthTable(path, list("a", "b"), 2);
+        new VariableLengthTable(path, 2).clear();
+
+        VariableLengthTable table = new VariableLengthTable(path, list("NEW"), 2);
+        assertEquals(list("NEW"), elements(table));
+        assertEquals(list("NEW"), elements(new VariableLengthTable(path, 2)));
+    }
+
+    @Test
+    void batchIsReplayedWhole() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        new VariableLengthTable(path, list("a", "b"), 2);
+        VariableLengthTable table = new VariableLengthTable(path, 2);
+        table.batch(editor -> {
+
+            editor.add("c");
+            editor.remove(0);
+            editor.setColumns(3);
+        });
+
+        VariableLengthTable reopened = new VariableLengthTable(path, 2);
+        assertEquals(list("b", "c"), elements(reopened));
+        assertEquals(3, reopened.getColumns());
+    }
+
+    @Test
+    void cutOffBatchIsDropped() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        new VariableLengthTable(path, list("a", "b"), 2);
+        new VariableLengthTable(path, 2).add("c");
+        Files.writeString(Path.of(path + ".journal"), "A\td\nR\t0\n", java.nio.file.StandardOpenOption.APPEND); // no end of batch
+
+        VariableLengthTable table = new VariableLengthTable(path, 2);
+        assertEquals(list("a", "b", "c"), elements(table));
+        table.add("e"); // logged after the last complete batch, not after the dropped one
+
+        assertEquals(list("a", "b", "c", "e"), elements(new VariableLengthTable(path, 2)));
+    }
+
+    @Test
+    void journalWithoutCompleteBatchIsRemoved() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        new VariableLengthTable(path, list("a", "b"), 2);
+        VariableLengthTable written = new VariableLengthTable(path, 2);
+        written.add("c");
+        String journal = Files.readString(Path.of(path + ".journal"));
+        Files.writeString(Path.of(path + ".journal"), journal.substring(0, journal.length() - 2)); // end of batch cut off
+
+        assertEquals(list("a", "b"), elements(new VariableLengthTable(path, 2)));
+        assertFalse(new File(path + ".journal").exists());
+    }
+}
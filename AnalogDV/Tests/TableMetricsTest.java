@@ -0,0 +1,129 @@
+/* Tests of table metrics: the recorder should sum up and bucket what it is given, from any number of threads,
+ * and a table should report its reading, journal, layout and statistics to the metrics it is given.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableMetricsTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    @Test
+    void recorderSumsAndBuckets() {
+
+        TableMetricsRecorder recorder = new TableMetricsRecorder();
+        recorder.record("a", 1000, 10, 100, 0); // bucket 10, 1000 < 2^10
+        recorder.record("a", 3000, 20, 0, 50); // bucket 12
+        recorder.record("a", 0, 0, 0, 0); // bucket 0
+
+        assertEquals(Set.of("a"), recorder.getOperations());
+        assertEquals(3, recorder.getCalls("a"));
+        assertEquals(4000, recorder.getTotalNanos("a"));
+        assertEquals(30, recorder.getElements("a"));
+        assertEquals(100, recorder.getBytesRead("a"));
+        assertEquals(50, recorder.getBytesWritten("a"));
+
+        long[] histogram = recorder.getHistogram("a");
+        assertEquals(1, histogram[0]);
+        assertEquals(1, histogram[10]);
+        assertEquals(1, histogram[12]);
+        assertEquals(1L << 10, recorder.getPercentile("a", 50));
+        assertEquals(1L << 12, recorder.getPercentile("a", 100));
+        assertEquals(1, recorder.getPercentile("a", 0));
+        assertThrows(IllegalArgumentException.class, () -> recorder.getPercentile("a", 101));
+
+        assertEquals(0, recorder.getCalls("b"));
+        assertEquals(0, recorder.getPercentile("b", 99));
+        recorder.reset();
+        assertTrue(recorder.getOperations().isEmpty());
+    }
+
+    @Test
+    void recorderIsShared() throws Exception {
+
+        TableMetricsRecorder recorder = new TableMetricsRecorder();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+
+            pool.submit(() -> {
+
+                for (int i = 0; i < 10000; i++) {
+
+                    recorder.record(i % 2 == 0 ? "even" : "odd", i, 1, 0, 0);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(20000, recorder.getCalls("even"));
+        assertEquals(20000, recorder.getElements("odd"));
+        assertEquals(4L * 10000 * 9999 / 2, recorder.getTotalNanos("even") + recorder.getTotalNanos("odd"));
+    }
+
+    @Test
+    void tableReportsItsOperations() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        StatisticalTable written = new StatisticalTable(path, 2);
+        written.add(1, 2, 3, 4);
+        written.compact();
+        long fileSize = Files.size(Path.of(path));
+
+        TableMetricsRecorder recorder = new TableMetricsRecorder();
+        StatisticalTable table = new StatisticalTable(path, 2);
+        table.useMetrics(recorder); // before the file is read
+        assertEquals(2.5, table.getMeanValue()); // from the summary file, nothing is read
+        assertEquals(0, recorder.getCalls(TableMetrics.PARSE));
+        assertEquals(2.5, table.getMedianValue());
+        assertEquals(1, recorder.getCalls(TableMetrics.PARSE));
+        assertEquals(4, recorder.getElements(TableMetrics.PARSE));
+        assertEquals(fileSize, recorder.getBytesRead(TableMetrics.PARSE));
+        assertEquals(1, recorder.getCalls(TableMetrics.STATISTIC + "median"));
+
+        table.add(5);
+        assertEquals(1, recorder.getCalls(TableMetrics.JOURNAL));
+        assertTrue(recorder.getBytesWritten(TableMetrics.JOURNAL) > 0);
+        table.getTable();
+        assertEquals(1, recorder.getCalls(TableMetrics.LAYOUT));
+        table.getTable(); // nothing has changed, nothing to build
+        assertEquals(1, recorder.getCalls(TableMetrics.LAYOUT));
+
+        table.compact();
+        assertEquals(Files.size(Path.of(path)), recorder.getBytesWritten(TableMetrics.PERSIST));
+
+        table.useMetrics(null); // back to no metrics
+        table.getMedianValue();
+        assertEquals(1, recorder.getCalls(TableMetrics.STATISTIC + "median"));
+    }
+
+    @Test
+    void variableLengthTableReportsItsOperations() throws Exception {
+
+        String path = this.directory.resolve("table").toString();
+        new VariableLengthTable(path, new ArrayList<String>(Arrays.asList("a", "b", "c")), 2);
+        TableMetricsRecorder recorder = new TableMetricsRecorder();
+        VariableLengthTable table = new VariableLengthTable(path, 2);
+        table.useMetrics(recorder);
+
+        assertEquals(3, table.size()); // counted, not read
+        assertEquals(0, recorder.getCalls(TableMetrics.PARSE));
+        assertEquals(1, table.indexOf("b"));
+        assertEquals(3, recorder.getElements(TableMetrics.PARSE));
+        assertEquals(Files.size(Path.of(path)), recorder.getBytesRead(TableMetrics.PARSE));
+        table.add(new ArrayList<String>(Arrays.asList("d", "e")));
+        assertEquals(1, recorder.getElements(TableMetrics.JOURNAL)); // one record for the whole list
+    }
+}
@@ -0,0 +1,116 @@
+/* Tests of TableStore: tables are closed when the store holds too many elements, whatever happens to the
+ * action that made it hold them, and a table that can't be closed doesn't fail someone else's action.
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TableStoreTest {
+
+    /**
+     * Opens an in-memory table with a few elements, tables whose path starts with "broken" can't be flushed
+     *
+     * @param path name of the table
+     * @return the table
+     * @throws Exception if the table can't be made
+     */
+    private static Table open(String path) throws Exception {
+
+        ArrayList<String> elements = new ArrayList<String>(Arrays.asList("a", "b", "c"));
+        boolean isBroken = path.startsWith("broken");
+
+        return new Table(elements, 2) {
+
+            public void flush() throws IOException {
+
+                if (isBroken) {
+
+                    throw new IOException("DISK IS FULL");
+                }
+            }
+        };
+    }
+
+    @Test
+    void failedActionStillEvicts() throws Exception {
+
+        TableStore<Table> store = new TableStore<Table>(5, TableStoreTest::open);
+        store.with("first", table -> table.size());
+        assertThrows(IllegalStateException.class, () -> store.with("second", table -> {
+
+            throw new IllegalStateException("ACTION FAILED");
+        }));
+
+        assertEquals(1, store.getNumberOfOpenTables());
+        assertTrue(store.getNumberOfOpenElements() <= 5);
+        store.close();
+    }
+
+    @Test
+    void flushFailureIsKeptNotThrown() throws Exception {
+
+        TableStore<Table> store = new TableStore<Table>(5, TableStoreTest::open);
+        store.with("broken", table -> table.size());
+        assertEquals(3, (int) store.with("other", table -> table.size())); // closing "broken" fails meanwhile
+
+        assertTrue(store.getFlushFailures().containsKey("broken"));
+        assertEquals(1, store.getNumberOfOpenTables()); // "broken" is kept open with its changes, "other" is closed
+        assertEquals(3, (int) store.with("broken", table -> table.size()));
+    }
+
+    @Test
+    void unreadTablesHoldNoElements(@TempDir Path directory) throws Exception {
+
+        ArrayList<String> elements = new ArrayList<String>();
+        for (int i = 0; i < 10; i++) {
+
+            elements.add("e" + i);
+        }
+        for (String name : new String[] {"first", "second"}) {
+
+            new VariableLengthTable(directory.resolve(name).toString(), elements, 2);
+        }
+
+        TableStore<VariableLengthTable> store = new TableStore<VariableLengthTable>(5, path -> new VariableLengthTable(path, 2));
+        String first = directory.resolve("first").toString();
+        String second = directory.resolve("second").toString();
+        assertEquals(10, (int) store.with(first, table -> table.size())); // counted in the file, not read
+        assertEquals(10, (int) store.with(second, table -> table.size()));
+        assertEquals(2, store.getNumberOfOpenTables());
+        assertEquals(0, store.getNumberOfOpenElements());
+
+        store.with(first, table -> table.getNumberOfRows()); // reads the file, which is too much to keep
+        assertEquals(1, store.getNumberOfOpenTables()); // closing "second" wouldn't have made room
+        assertEquals(0, store.getNumberOfOpenElements());
+        store.close();
+    }
+
+    @Test
+    void busyTableDoesNotBlockOthers() throws Exception {
+
+        TableStore<Table> store = new TableStore<Table>(100, TableStoreTest::open);
+        CountDownLatch using = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        CompletableFuture<Boolean> busy = store.submit("busy", table -> {
+
+            using.countDown();
+            return done.await(10, TimeUnit.SECONDS);
+        });
+
+        using.await();
+        assertEquals(3, (int) store.with("other", table -> table.size()));
+        assertEquals(3, store.getNumberOfOpenElements()); // "busy" is only counted once it is left
+        done.countDown();
+        assertEquals(true, busy.get());
+        store.close();
+    }
+}
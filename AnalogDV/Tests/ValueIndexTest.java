@@ -0,0 +1,99 @@
+/* Tests of the value index: a table that uses an index should find what a table without one finds, through
+ * adds (indexed right away) and removes (index built again).
+ */
+
+package analogdv;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueIndexTest {
+
+    @TempDir
+    Path directory; // where the table files are
+
+    /**
+     * Checks that two tables find the same positions of every value
+     *
+     * @param indexed table that uses an index
+     * @param plain table that doesn't
+     */
+    private static void assertSameAnswers(Table indexed, Table plain) {
+
+        for (int i = 0; i < 12; i++) { // v10 and v11 are never in the tables
+
+            String value = "v" + i;
+            assertEquals(plain.positionsOf(value), indexed.positionsOf(value));
+            assertEquals(plain.indexOf(value), indexed.indexOf(value));
+            assertEquals(plain.contains(value), indexed.contains(value));
+        }
+    }
+
+    @Test
+    void indexedTableFindsWhatPlainTableFinds() throws Exception {
+
+        VariableLengthTable indexed = new VariableLengthTable(this.directory.resolve("indexed").toString(), 3);
+        VariableLengthTable plain = new VariableLengthTable(this.directory.resolve("plain").toString(), 3);
+        indexed.useIndex();
+        Random random = new Random(35);
+
+        for (int i = 0; i < 400; i++) {
+
+            int operation = random.nextInt(10);
+            if (operation < 6 || plain.size() == 0) {
+
+                String value = "v" + random.nextInt(10);
+                indexed.add(value);
+                plain.add(value);
+            }
+            else if (operation < 8) {
+
+                int cellNumber = random.nextInt(plain.size());
+                indexed.remove(cellNumber);
+                plain.remove(cellNumber);
+            }
+            else if (operation == 8) {
+
+                int from = random.nextInt(plain.size());
+                int to = Math.min(plain.size(), from + random.nextInt(5));
+                indexed.removeRange(from, to);
+                plain.removeRange(from, to);
+            }
+            else {
+
+                assertSameAnswers(indexed, plain);
+            }
+        }
+
+        assertSameAnswers(indexed, plain);
+        indexed.clear();
+        assertEquals(-1, indexed.indexOf("v1"));
+        indexed.add("v1");
+        assertEquals(List.of(0), indexed.positionsOf("v1"));
+    }
+
+    @Test
+    void indexedStatisticalTableFindsNumbers() throws Exception {
+
+        StatisticalTable table = new StatisticalTable(this.directory.resolve("numbers").toString(), 2);
+        table.add(new ArrayList<String>(List.of("2", "2.0", "2e0", "-0", "0", "3")));
+        List<Integer> twos = table.find(2);
+        List<Integer> zeros = table.find(0);
+        assertEquals(List.of(0, 1, 2), twos);
+        assertEquals(List.of(3, 4), zeros);
+
+        table.useIndex();
+        assertEquals(twos, table.find(2));
+        assertEquals(zeros, table.find(-0.0));
+        assertEquals(List.of(0), table.positionsOf("2")); // as text, "2" and "2.0" differ
+
+        table.add(2);
+        table.remove(0);
+        assertEquals(List.of(0, 1, 5), table.find(2));
+        assertTrue(table.find(7).isEmpty());
+    }
+}